@@ -0,0 +1,163 @@
+/**
+ * Broodcamp Library
+ * Copyright (C) 2019 Edward P. Legaspi (https://github.com/czetsuya)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.broodcamp.util.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compares two JMH result files written with {@code -rf json}, typically the
+ * baseline of the previous release and the current run, and prints the change
+ * of every benchmark present in both.
+ * <p>
+ * A benchmark is reported as a regression when it is worse than the baseline by
+ * more than the threshold and the confidence intervals of both scores do not
+ * overlap. Lower scores are better, except in throughput mode. Benchmarks whose
+ * mode or score unit differs from the baseline cannot be compared and are
+ * reported as mismatches. The program exits with status 1 on any regression or
+ * mismatch.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.broodcamp.util.benchmark.BaselineComparator baselines/0.0.2.json target/results.json [threshold-percent]
+ * </pre>
+ *
+ * @author Edward P. Legaspi | czetsuya@gmail.com
+ */
+public class BaselineComparator {
+
+    private static final double DEFAULT_THRESHOLD = 10;
+
+    private BaselineComparator() {
+
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BaselineComparator <baseline.json> <results.json> [threshold-percent]");
+            System.exit(2);
+        }
+
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD;
+        Map<String, JsonNode> baseline = read(new File(args[0]));
+        Map<String, JsonNode> results = read(new File(args[1]));
+
+        int regressions = 0;
+        int mismatches = 0;
+        System.out.println(String.format("%-80s %30s %30s %9s", "Benchmark", "Baseline", "Current", "Change"));
+        for (Map.Entry<String, JsonNode> entry : results.entrySet()) {
+            JsonNode previous = baseline.get(entry.getKey());
+            Score after = new Score(entry.getValue());
+            if (previous == null) {
+                System.out.println(String.format("%-80s %30s %30s %9s", entry.getKey(), "-", after, "new"));
+                continue;
+            }
+
+            Score before = new Score(previous);
+            if (!before.mode.equals(after.mode) || !before.unit.equals(after.unit)) {
+                mismatches++;
+                System.out.println(String.format("%-80s %30s %30s %9s", entry.getKey(), before, after, "MISMATCH"));
+                continue;
+            }
+
+            // positive when the current run is worse
+            double change = (after.score - before.score) / before.score * 100;
+            double degradation = after.isLowerBetter() ? change : -change;
+            boolean significant = after.isLowerBetter() ? after.low > before.high : after.high < before.low;
+            String status = "";
+            if (degradation > threshold) {
+                if (significant) {
+                    regressions++;
+                    status = " REGRESSION";
+                } else {
+                    status = " within error";
+                }
+            }
+            System.out.println(String.format("%-80s %30s %30s %+8.1f%%%s", entry.getKey(), before, after, change, status));
+        }
+
+        if (mismatches > 0) {
+            System.out.println(mismatches + " benchmark(s) with a mode or unit different from the baseline");
+        }
+        if (regressions > 0) {
+            System.out.println(regressions + " benchmark(s) worse than the baseline by more than " + threshold + "% beyond the error margins");
+        }
+        if (mismatches > 0 || regressions > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Reads a result file into a map keyed by benchmark name and parameters.
+     */
+    private static Map<String, JsonNode> read(File file) throws IOException {
+        Map<String, JsonNode> benchmarks = new LinkedHashMap<>();
+        for (JsonNode benchmark : new ObjectMapper().readTree(file)) {
+            StringBuilder key = new StringBuilder(benchmark.get("benchmark").asText());
+            JsonNode params = benchmark.get("params");
+            if (params != null) {
+                Map<String, String> sortedParams = new TreeMap<>();
+                params.fields().forEachRemaining(param -> sortedParams.put(param.getKey(), param.getValue().asText()));
+                key.append(sortedParams);
+            }
+            benchmarks.put(key.toString(), benchmark);
+        }
+        return benchmarks;
+    }
+
+    /**
+     * The primary score of a benchmark and its confidence interval.
+     */
+    private static final class Score {
+
+        private final String mode;
+        private final String unit;
+        private final double score;
+        private final double low;
+        private final double high;
+
+        Score(JsonNode benchmark) {
+            JsonNode metric = benchmark.get("primaryMetric");
+            mode = benchmark.get("mode").asText();
+            unit = metric.get("scoreUnit").asText();
+            score = metric.get("score").asDouble();
+
+            // JMH writes NaN when there are too few samples for an interval
+            double error = metric.get("scoreError").asDouble();
+            if (Double.isNaN(error)) {
+                error = 0;
+            }
+            low = score - error;
+            high = score + error;
+        }
+
+        boolean isLowerBetter() {
+            return !"thrpt".equals(mode);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.3f +- %.3f %s", score, high - score, unit);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ * Broodcamp Library
+ * Copyright (C) 2019 Edward P. Legaspi (https://github.com/czetsuya)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.broodcamp.util.benchmark;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.broodcamp.util.BeanUtils;
+import com.broodcamp.util.benchmark.Fixtures.Customer;
+import com.broodcamp.util.benchmark.Fixtures.CustomerDto;
+
+/**
+ * {@link BeanUtils#copyProperties(Object, Object)} between an entity and its
+ * DTO.
+ *
+ * @author Edward P. Legaspi | czetsuya@gmail.com
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class BeanUtilsBenchmark {
+
+    private Customer customer;
+
+    @Setup
+    public void setUp() {
+        customer = Fixtures.customer(10);
+        customer.setName(null);
+    }
+
+    @Benchmark
+    public CustomerDto copyProperties() throws IllegalAccessException, InvocationTargetException {
+        CustomerDto dto = new CustomerDto();
+        BeanUtils.copyProperties(customer, dto);
+        return dto;
+    }
+}
@@ -0,0 +1,122 @@
+/**
+ * Broodcamp Library
+ * Copyright (C) 2019 Edward P. Legaspi (https://github.com/czetsuya)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.broodcamp.util.benchmark;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.broodcamp.util.FileUtils;
+
+/**
+ * Compares the former {@code FileReader} based
+ * {@code StringUtils.readFileAsString} with the NIO reads of
+ * {@link FileUtils} on files from 1 KB to 1 GB.
+ *
+ * @author Edward P. Legaspi | czetsuya@gmail.com
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 3, jvmArgs = { "-Xmx4g" })
+public class FileUtilsBenchmark {
+
+    private static final String LINE = "2020-06-01 12:00:00,042 INFO  [com.broodcamp.Service] Processed order 1234567 for customer éà\n";
+
+    @Param({ "1024", "1048576", "104857600", "1073741824" })
+    public long fileSize;
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("broodcamp-bench", ".log");
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            long written = 0;
+            while (written < fileSize) {
+                writer.write(LINE);
+                written += LINE.getBytes(StandardCharsets.UTF_8).length;
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public String fileReader() throws IOException {
+        StringBuilder fileData = new StringBuilder(1000);
+        try (BufferedReader reader = new BufferedReader(new FileReader(file.toFile(), StandardCharsets.UTF_8))) {
+            char[] buf = new char[1024];
+            int numRead = 0;
+            while ((numRead = reader.read(buf)) != -1) {
+                String readData = String.valueOf(buf, 0, numRead);
+                fileData.append(readData);
+                buf = new char[1024];
+            }
+        }
+        return fileData.toString();
+    }
+
+    @Benchmark
+    public String readString() throws IOException {
+        return FileUtils.readString(file, StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public String readMapped() throws IOException {
+        return FileUtils.readMapped(file, StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public long lines() throws IOException {
+        try (Stream<String> lines = FileUtils.lines(file, StandardCharsets.UTF_8)) {
+            return lines.count();
+        }
+    }
+
+    @Benchmark
+    public void chunks(Blackhole blackhole) throws IOException {
+        FileUtils.forEachChunk(file, StandardCharsets.UTF_8, buffer -> blackhole.consume(buffer.remaining()));
+    }
+}
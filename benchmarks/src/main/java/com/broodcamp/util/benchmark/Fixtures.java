@@ -0,0 +1,402 @@
+/**
+ * Broodcamp Library
+ * Copyright (C) 2019 Edward P. Legaspi (https://github.com/czetsuya)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.broodcamp.util.benchmark;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Realistic data used by the benchmarks: an entity graph with deep property
+ * paths, its JSON and XML forms, and schema-sized word lists.
+ *
+ * @author Edward P. Legaspi | czetsuya@gmail.com
+ */
+public class Fixtures {
+
+    public static final String DEEP_PROPERTY = "account.billingAddress.country.name";
+
+    /**
+     * The entity classes of the fixtures, as rendered by an admin screen.
+     */
+    public static final Class<?>[] TYPES = { Customer.class, CustomerDto.class, Account.class, Address.class, Country.class, Order.class, OrderLine.class };
+
+    private static final String[] NOUNS = { "customer", "account", "seller", "invoice", "order", "payment", "subscription", "offer", "product", "charge", "tax",
+            "discount", "wallet", "provider", "contact", "address", "country", "currency", "language", "calendar", "counter", "usage", "rating", "billing",
+            "cycle", "template", "notification", "script", "job", "report", "audit", "user", "role", "permission", "channel", "entity", "category", "status",
+            "quote", "contract", "price", "plan", "item", "line", "batch", "file", "format", "mediation", "access", "credit" };
+
+    private static final String[] QUALIFIERS = { "", "line", "instance", "template", "history", "category", "type", "code", "detail", "version" };
+
+    private Fixtures() {
+
+    }
+
+    public enum Status {
+        NEW, ACTIVE, SUSPENDED, CANCELED, CLOSED
+    }
+
+    /**
+     * @return about 500 camel case class names such as "InvoiceLine"
+     */
+    public static List<String> classNames() {
+        List<String> names = new ArrayList<>();
+        for (String noun : NOUNS) {
+            for (String qualifier : QUALIFIERS) {
+                names.add(capitalize(noun) + capitalize(qualifier));
+            }
+        }
+        return names;
+    }
+
+    /**
+     * @return about 500 underscored table names such as "invoice_line"
+     */
+    public static List<String> tableNames() {
+        List<String> names = new ArrayList<>();
+        for (String noun : NOUNS) {
+            for (String qualifier : QUALIFIERS) {
+                names.add(qualifier.isEmpty() ? noun : noun + "_" + qualifier);
+            }
+        }
+        return names;
+    }
+
+    public static Customer customer(int orderCount) {
+        Country country = new Country();
+        country.setCode("PH");
+        country.setName("Philippines");
+
+        Address address = new Address();
+        address.setStreet("1 Ayala Avenue");
+        address.setCity("Makati");
+        address.setCountry(country);
+
+        Account account = new Account();
+        account.setCode("ACC-0001");
+        account.setBillingAddress(address);
+
+        Customer customer = new Customer();
+        customer.setCode("CUST-0001");
+        customer.setName("Broodcamp Trading");
+        customer.setStatus(Status.ACTIVE);
+        customer.setAccount(account);
+
+        List<Order> orders = new ArrayList<>(orderCount);
+        for (int i = 0; i < orderCount; i++) {
+            Order order = new Order();
+            order.setId(i);
+            order.setReference("ORD-" + i);
+            order.setStatus(Status.values()[i % Status.values().length]);
+            order.setAmount(BigDecimal.valueOf(i * 1999L, 2));
+            List<OrderLine> lines = new ArrayList<>();
+            for (int j = 0; j < 5; j++) {
+                OrderLine line = new OrderLine();
+                line.setSku("SKU-" + i + "-" + j);
+                line.setQuantity(j + 1);
+                line.setPrice(BigDecimal.valueOf(j * 250L, 2));
+                lines.add(line);
+            }
+            order.setLines(lines);
+            orders.add(order);
+        }
+        customer.setOrders(orders);
+
+        return customer;
+    }
+
+    /**
+     * @param orderCount number of order elements
+     * @return an xml document of about 500 bytes per order
+     */
+    public static String xml(int orderCount) {
+        StringBuilder sb = new StringBuilder(orderCount * 512);
+        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<orders xmlns=\"http://broodcamp.com/orders\">\n");
+        for (int i = 0; i < orderCount; i++) {
+            sb.append("  <order id=\"").append(i).append("\" status=\"ACTIVE\">\n");
+            sb.append("    <reference>ORD-").append(i).append("</reference>\n");
+            sb.append("    <customer code=\"CUST-").append(i % 100).append("\"><name>Broodcamp &amp; Co</name></customer>\n");
+            for (int j = 0; j < 3; j++) {
+                sb.append("    <line sku=\"SKU-").append(i).append('-').append(j).append("\" quantity=\"").append(j + 1).append("\" price=\"12.50\"/>\n");
+            }
+            sb.append("  </order>\n");
+        }
+        sb.append("</orders>\n");
+        return sb.toString();
+    }
+
+    private static String capitalize(String word) {
+        return word.isEmpty() ? word : Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+
+    public static class Customer {
+
+        private String code;
+        private String name;
+        private Status status;
+        private Account account;
+        private List<Order> orders;
+
+        public String getCode() {
+            return code;
+        }
+
+        public void setCode(String code) {
+            this.code = code;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public void setStatus(Status status) {
+            this.status = status;
+        }
+
+        public Account getAccount() {
+            return account;
+        }
+
+        public void setAccount(Account account) {
+            this.account = account;
+        }
+
+        public List<Order> getOrders() {
+            return orders;
+        }
+
+        public void setOrders(List<Order> orders) {
+            this.orders = orders;
+        }
+    }
+
+    /**
+     * Flat copy target of {@link Customer} for bean copies.
+     */
+    public static class CustomerDto {
+
+        private String code;
+        private String name;
+        private Status status;
+        private Account account;
+        private List<Order> orders;
+
+        public String getCode() {
+            return code;
+        }
+
+        public void setCode(String code) {
+            this.code = code;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public void setStatus(Status status) {
+            this.status = status;
+        }
+
+        public Account getAccount() {
+            return account;
+        }
+
+        public void setAccount(Account account) {
+            this.account = account;
+        }
+
+        public List<Order> getOrders() {
+            return orders;
+        }
+
+        public void setOrders(List<Order> orders) {
+            this.orders = orders;
+        }
+    }
+
+    public static class Account {
+
+        private String code;
+        private Address billingAddress;
+
+        public String getCode() {
+            return code;
+        }
+
+        public void setCode(String code) {
+            this.code = code;
+        }
+
+        public Address getBillingAddress() {
+            return billingAddress;
+        }
+
+        public void setBillingAddress(Address billingAddress) {
+            this.billingAddress = billingAddress;
+        }
+    }
+
+    public static class Address {
+
+        private String street;
+        private String city;
+        private Country country;
+
+        public String getStreet() {
+            return street;
+        }
+
+        public void setStreet(String street) {
+            this.street = street;
+        }
+
+        public String getCity() {
+            return city;
+        }
+
+        public void setCity(String city) {
+            this.city = city;
+        }
+
+        public Country getCountry() {
+            return country;
+        }
+
+        public void setCountry(Country country) {
+            this.country = country;
+        }
+    }
+
+    public static class Country {
+
+        private String code;
+        private String name;
+
+        public String getCode() {
+            return code;
+        }
+
+        public void setCode(String code) {
+            this.code = code;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    public static class Order {
+
+        private long id;
+        private String reference;
+        private Status status;
+        private BigDecimal amount;
+        private List<OrderLine> lines;
+
+        public long getId() {
+            return id;
+        }
+
+        public void setId(long id) {
+            this.id = id;
+        }
+
+        public String getReference() {
+            return reference;
+        }
+
+        public void setReference(String reference) {
+            this.reference = reference;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public void setStatus(Status status) {
+            this.status = status;
+        }
+
+        public BigDecimal getAmount() {
+            return amount;
+        }
+
+        public void setAmount(BigDecimal amount) {
+            this.amount = amount;
+        }
+
+        public List<OrderLine> getLines() {
+            return lines;
+        }
+
+        public void setLines(List<OrderLine> lines) {
+            this.lines = lines;
+        }
+    }
+
+    public static class OrderLine {
+
+        private String sku;
+        private int quantity;
+        private BigDecimal price;
+
+        public String getSku() {
+            return sku;
+        }
+
+        public void setSku(String sku) {
+            this.sku = sku;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        public void setQuantity(int quantity) {
+            this.quantity = quantity;
+        }
+
+        public BigDecimal getPrice() {
+            return price;
+        }
+
+        public void setPrice(BigDecimal price) {
+            this.price = price;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/**
+ * Broodcamp Library
+ * Copyright (C) 2019 Edward P. Legaspi (https://github.com/czetsuya)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.broodcamp.util.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.broodcamp.util.Inflector;
+
+/**
+ * {@link Inflector} over the table and class names of a schema of about 500
+ * entities. Scores are per whole word list.
+ *
+ * @author Edward P. Legaspi | czetsuya@gmail.com
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class InflectorBenchmark {
+
+    private final Inflector inflector = Inflector.getInstance();
+
+    private List<String> tableNames;
+    private List<String> classNames;
+    private List<String> pluralNames;
+
+    @Setup
+    public void setUp() {
+        tableNames = Fixtures.tableNames();
+        classNames = Fixtures.classNames();
+        pluralNames = tableNames.stream().map(inflector::pluralize).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public void pluralize(Blackhole blackhole) {
+        for (String word : tableNames) {
+            blackhole.consume(inflector.pluralize(word));
+        }
+    }
+
+    @Benchmark
+    public void singularize(Blackhole blackhole) {
+        for (String word : pluralNames) {
+            blackhole.consume(inflector.singularize(word));
+        }
+    }
+
+    @Benchmark
+    public void upperCamelCase(Blackhole blackhole) {
+        for (String word : tableNames) {
+            blackhole.consume(inflector.upperCamelCase(word));
+        }
+    }
+
+    @Benchmark
+    public void underscore(Blackhole blackhole) {
+        for (String word : classNames) {
+            blackhole.consume(inflector.underscore(word));
+        }
+    }
+
+    @Benchmark
+    public void humanize(Blackhole blackhole) {
+        for (String word : tableNames) {
+            blackhole.consume(inflector.humanize(word));
+        }
+    }
+}
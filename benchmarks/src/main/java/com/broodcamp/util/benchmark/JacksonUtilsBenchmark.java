@@ -0,0 +1,117 @@
+/**
+ * Broodcamp Library
+ * Copyright (C) 2019 Edward P. Legaspi (https://github.com/czetsuya)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.broodcamp.util.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.annotations.Param;
+
+import com.broodcamp.util.JacksonUtils;
+import com.broodcamp.util.benchmark.Fixtures.Customer;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * {@link JacksonUtils} on a customer with a small and a large number of orders,
+ * about 120 bytes to 3 MB of JSON, with the default and the accelerated mapper.
+ *
+ * @author Edward P. Legaspi | czetsuya@gmail.com
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class JacksonUtilsBenchmark {
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<Map<String, Object>>() {
+    };
+
+    @Param({ "0", "10", "10000" })
+    public int orderCount;
+
+    private static final String[] POINTERS = { "/code", "/orders/0/reference" };
+
+    @Param({ "false", "true" })
+    public boolean accelerated;
+
+    private Customer customer;
+    private String json;
+
+    @Setup
+    public void setUp() {
+        if (JacksonUtils.setAccelerated(accelerated) != accelerated) {
+            throw new IllegalStateException("The accelerated mapper is not available");
+        }
+        customer = Fixtures.customer(orderCount);
+        json = JacksonUtils.toString(customer);
+    }
+
+    @Benchmark
+    public String serialize() {
+        return JacksonUtils.toString(customer);
+    }
+
+    @Benchmark
+    public Customer deserialize() {
+        return JacksonUtils.fromString(json, Customer.class);
+    }
+
+    @Benchmark
+    public JsonNode toJsonNode() {
+        return JacksonUtils.toJsonNode(json);
+    }
+
+    @Benchmark
+    public Map<String, JsonNode> extract() {
+        return JacksonUtils.extract(json, POINTERS);
+    }
+
+    @Benchmark
+    public JsonNode[] extractThroughTree() {
+        JsonNode tree = JacksonUtils.toJsonNode(json);
+        return new JsonNode[] { tree.at(POINTERS[0]), tree.at(POINTERS[1]) };
+    }
+
+    @Benchmark
+    public Map<String, Object> convertToMap() {
+        return JacksonUtils.convert(customer, MAP_TYPE);
+    }
+
+    @Benchmark
+    public Map<String, Object> convertToMapThroughText() {
+        return JacksonUtils.fromString(JacksonUtils.toString(customer), MAP_TYPE);
+    }
+
+    @Benchmark
+    public Customer copy() {
+        return JacksonUtils.clone(customer);
+    }
+}
@@ -0,0 +1,113 @@
+/**
+ * Broodcamp Library
+ * Copyright (C) 2019 Edward P. Legaspi (https://github.com/czetsuya)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.broodcamp.util.benchmark;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.broodcamp.util.JacksonUtils;
+import com.broodcamp.util.JsonLinesWriter;
+import com.broodcamp.util.benchmark.Fixtures.Order;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Compares writing orders to a JSON Lines file on the calling thread with
+ * {@link JsonLinesWriter}, whose records are either converted to tokens on the
+ * calling thread or kept by reference and serialized on the common pool.
+ *
+ * @author Edward P. Legaspi | czetsuya@gmail.com
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class JsonLinesBenchmark {
+
+    @Param({ "1000", "100000" })
+    public int recordCount;
+
+    private List<Order> records;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        records = Fixtures.customer(recordCount).getOrders();
+        file = Files.createTempFile("broodcamp-bench", ".jsonl");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public long sequential() throws IOException {
+        ObjectWriter writer = JacksonUtils.getObjectMapper().writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024);
+                JsonGenerator generator = writer.createGenerator(out)) {
+            generator.setRootValueSeparator(new SerializedString("\n"));
+            for (Order record : records) {
+                writer.writeValue(generator, record);
+            }
+            generator.writeRaw('\n');
+        }
+        return Files.size(file);
+    }
+
+    @Benchmark
+    public long tokens() throws IOException {
+        try (JsonLinesWriter writer = new JsonLinesWriter(file)) {
+            records.forEach(writer);
+        }
+        return Files.size(file);
+    }
+
+    @Benchmark
+    public long keepRecords() throws IOException {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        try (JsonLinesWriter writer = new JsonLinesWriter(file, JsonLinesWriter.DEFAULT_BATCH_SIZE, pool, 2 * pool.getParallelism() + 1, true)) {
+            records.forEach(writer);
+        }
+        return Files.size(file);
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ * Broodcamp Library
+ * Copyright (C) 2019 Edward P. Legaspi (https://github.com/czetsuya)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.broodcamp.util.benchmark;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.broodcamp.util.ReflectionUtils;
+import com.broodcamp.util.benchmark.Fixtures.Customer;
+import com.broodcamp.util.benchmark.Fixtures.Order;
+import com.broodcamp.util.benchmark.Fixtures.Status;
+
+/**
+ * Hot paths of {@link ReflectionUtils}.
+ *
+ * @author Edward P. Legaspi | czetsuya@gmail.com
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class ReflectionUtilsBenchmark {
+
+    private static final String PROXY_CLASS_NAME = "com.broodcamp.model.Customer_$$_javassist_42";
+
+    private Customer customer;
+    private List<String> classNames;
+
+    @Setup
+    public void setUp() {
+        customer = Fixtures.customer(10);
+        classNames = Fixtures.classNames();
+    }
+
+    @Benchmark
+    public Object getPropertyValue() throws IllegalAccessException {
+        return ReflectionUtils.getPropertyValue(customer, Fixtures.DEEP_PROPERTY);
+    }
+
+    @Benchmark
+    public Field getField() {
+        return ReflectionUtils.getField(Customer.class, Fixtures.DEEP_PROPERTY);
+    }
+
+    @Benchmark
+    public List<Field> getAllFields() {
+        return ReflectionUtils.getAllFields(Order.class);
+    }
+
+    @Benchmark
+    public String getCleanClassName() {
+        return ReflectionUtils.getCleanClassName(PROXY_CLASS_NAME);
+    }
+
+    @Benchmark
+    public void getHumanClassName(Blackhole blackhole) {
+        for (String className : classNames) {
+            blackhole.consume(ReflectionUtils.getHumanClassName(className));
+        }
+    }
+
+    @Benchmark
+    public void getHumanClassNameOfClass(Blackhole blackhole) {
+        for (Class<?> type : Fixtures.TYPES) {
+            blackhole.consume(ReflectionUtils.getHumanClassName(type));
+        }
+    }
+
+    @Benchmark
+    public Status getEnumFromString() {
+        return ReflectionUtils.getEnumFromString(Status.class, " active");
+    }
+
+    @Benchmark
+    public Status getEnumFromStringMiss() {
+        return ReflectionUtils.getEnumFromString(Status.class, "unknown");
+    }
+}
@@ -0,0 +1,371 @@
+/**
+ * Broodcamp Library
+ * Copyright (C) 2019 Edward P. Legaspi (https://github.com/czetsuya)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.broodcamp.util.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+/**
+ * Generates a {@code com.broodcamp.util.PropertyAccessor} for every class
+ * annotated with {@code com.broodcamp.util.GenerateAccessor}. The generated
+ * class is found at runtime by {@code com.broodcamp.util.Accessors}, so the
+ * naming rules of both must stay in sync.
+ * <p>
+ * Only the fields the generated class can access directly are exposed, so the
+ * accessor reads and writes the raw field like reflection does, without running
+ * getter or setter logic. The other fields are left out and accessed by
+ * reflection at runtime. The types of inherited members are resolved as members
+ * of the annotated class, so a field declared as {@code ID} in a generic
+ * superclass has the type its subclass binds.
+ *
+ * @author Edward P. Legaspi | czetsuya@gmail.com
+ */
+@SupportedAnnotationTypes(AccessorProcessor.ANNOTATION)
+public class AccessorProcessor extends AbstractProcessor {
+
+    static final String ANNOTATION = "com.broodcamp.util.GenerateAccessor";
+    static final String SUFFIX = "_Accessor";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() != ElementKind.CLASS) {
+                    error(element, "@GenerateAccessor can only be used on classes");
+                    continue;
+                }
+                TypeElement type = (TypeElement) element;
+                if (!isVisible(type)) {
+                    error(element, "@GenerateAccessor classes and their enclosing classes cannot be private");
+                    continue;
+                }
+
+                try {
+                    generate(type);
+                } catch (IOException e) {
+                    error(element, "Cannot generate the accessor: " + e.getMessage());
+                }
+            }
+        }
+        return true;
+    }
+
+    private void generate(TypeElement type) throws IOException {
+        String packageName = packageOf(type).getQualifiedName().toString();
+        String typeName = erasure(type.asType());
+        String accessorName = type.getQualifiedName().toString().substring(packageName.isEmpty() ? 0 : packageName.length() + 1).replace('.', '_') + SUFFIX;
+
+        DeclaredType owner = (DeclaredType) type.asType();
+        List<Property> fields = fields(type, owner, packageName);
+        List<Property> beanProperties = beanProperties(type, owner);
+
+        StringBuilder sb = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            sb.append("package ").append(packageName).append(";\n\n");
+        }
+        sb.append("@javax.annotation.processing.Generated(\"").append(getClass().getName()).append("\")\n");
+        sb.append("@SuppressWarnings({ \"unchecked\", \"rawtypes\" })\n");
+        sb.append("public final class ").append(accessorName).append(" implements com.broodcamp.util.PropertyAccessor<").append(typeName).append("> {\n\n");
+
+        sb.append("    @Override\n");
+        sb.append("    public Class<").append(typeName).append("> getType() {\n");
+        sb.append("        return ").append(typeName).append(".class;\n");
+        sb.append("    }\n\n");
+
+        appendNameSwitch(sb, "isReadable", fields, true);
+        appendNameSwitch(sb, "isWritable", fields, false);
+
+        sb.append("    @Override\n");
+        sb.append("    public Object getProperty(").append(typeName).append(" bean, String name) {\n");
+        sb.append("        switch (name) {\n");
+        for (Property field : fields) {
+            if (field.read != null) {
+                sb.append("        case \"").append(field.name).append("\":\n");
+                sb.append("            return bean.").append(field.read).append(";\n");
+            }
+        }
+        sb.append("        default:\n");
+        sb.append("            throw new IllegalArgumentException(\"Cannot read field \" + name + \" of \" + ").append(typeName).append(".class);\n");
+        sb.append("        }\n");
+        sb.append("    }\n\n");
+
+        sb.append("    @Override\n");
+        sb.append("    public void setProperty(").append(typeName).append(" bean, String name, Object value) {\n");
+        sb.append("        switch (name) {\n");
+        for (Property field : fields) {
+            if (field.write != null) {
+                String castType = castType(field.type);
+                sb.append("        case \"").append(field.name).append("\":\n");
+                if (field.type.getKind().isPrimitive()) {
+                    sb.append("            if (!(value instanceof ").append(castType).append(")) {\n");
+                } else {
+                    sb.append("            if (value != null && !(value instanceof ").append(castType).append(")) {\n");
+                }
+                sb.append("                throw invalidValue(name, value);\n");
+                sb.append("            }\n");
+                sb.append("            bean.").append(String.format(field.write, "(" + castType + ") value")).append(";\n");
+                sb.append("            return;\n");
+            }
+        }
+        sb.append("        default:\n");
+        sb.append("            throw new IllegalArgumentException(\"Cannot write field \" + name + \" of \" + ").append(typeName).append(".class);\n");
+        sb.append("        }\n");
+        sb.append("    }\n\n");
+
+        // same exception as Field.set for a null primitive or a value of another type
+        sb.append("    private static IllegalArgumentException invalidValue(String name, Object value) {\n");
+        sb.append("        return new IllegalArgumentException(\"Cannot set field \" + name + \" of \" + ").append(typeName)
+                .append(".class + \" to \" + (value == null ? \"null value\" : value.getClass().getName()));\n");
+        sb.append("    }\n\n");
+
+        sb.append("    @Override\n");
+        sb.append("    public void copyProperties(").append(typeName).append(" source, ").append(typeName).append(" target) {\n");
+        for (Property property : beanProperties) {
+            if (property.type.getKind().isPrimitive()) {
+                sb.append("        target.").append(String.format(property.write, "source." + property.read)).append(";\n");
+                continue;
+            }
+            sb.append("        {\n");
+            sb.append("            ").append(erasure(property.type)).append(" value = source.").append(property.read).append(";\n");
+            sb.append("            if (value != null) {\n");
+            if (isStringCompatible(property.type)) {
+                // same identity check as NullAwareBeanUtilsBean
+                sb.append("                target.").append(String.format(property.write, "value == \"\" ? null : value")).append(";\n");
+            } else {
+                sb.append("                target.").append(String.format(property.write, "value")).append(";\n");
+            }
+            sb.append("            }\n");
+            sb.append("        }\n");
+        }
+        sb.append("    }\n");
+        sb.append("}\n");
+
+        String qualifiedName = packageName.isEmpty() ? accessorName : packageName + "." + accessorName;
+        try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter()) {
+            writer.write(sb.toString());
+        }
+    }
+
+    private void appendNameSwitch(StringBuilder sb, String method, List<Property> fields, boolean read) {
+        sb.append("    @Override\n");
+        sb.append("    public boolean ").append(method).append("(String name) {\n");
+        sb.append("        switch (name) {\n");
+        boolean any = false;
+        for (Property field : fields) {
+            if ((read ? field.read : field.write) != null) {
+                sb.append("        case \"").append(field.name).append("\":\n");
+                any = true;
+            }
+        }
+        if (any) {
+            sb.append("            return true;\n");
+        }
+        sb.append("        default:\n");
+        sb.append("            return false;\n");
+        sb.append("        }\n");
+        sb.append("    }\n\n");
+    }
+
+    /**
+     * Collects the instance fields of a class and its superclasses that the
+     * generated class can access, a field hiding the fields of the same name of
+     * its superclasses.
+     */
+    private List<Property> fields(TypeElement type, DeclaredType owner, String packageName) {
+        Map<String, Property> fields = new LinkedHashMap<>();
+        for (TypeElement current = type; current != null; current = superclass(current)) {
+            for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                String name = field.getSimpleName().toString();
+                if (field.getModifiers().contains(Modifier.STATIC) || fields.containsKey(name)) {
+                    continue;
+                }
+
+                Property property = new Property(name, processingEnv.getTypeUtils().asMemberOf(owner, field));
+                if (isAccessible(field, packageName)) {
+                    property.read = name;
+                    if (!field.getModifiers().contains(Modifier.FINAL)) {
+                        property.write = name + " = %s";
+                    }
+                }
+                // an inaccessible field still hides the fields of its superclasses
+                fields.put(name, property);
+            }
+        }
+        return new ArrayList<>(fields.values());
+    }
+
+    /**
+     * Collects the Java bean properties with a public getter and setter of the
+     * same type, like {@link java.beans.Introspector} does.
+     */
+    private List<Property> beanProperties(TypeElement type, DeclaredType owner) {
+        Map<String, ExecutableElement> getters = new LinkedHashMap<>();
+        Map<String, ExecutableElement> setters = new LinkedHashMap<>();
+        for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type))) {
+            Set<Modifier> modifiers = method.getModifiers();
+            if (!modifiers.contains(Modifier.PUBLIC) || modifiers.contains(Modifier.STATIC)) {
+                continue;
+            }
+            String name = method.getSimpleName().toString();
+            int parameters = method.getParameters().size();
+            TypeKind returnKind = method.getReturnType().getKind();
+
+            if (parameters == 0 && name.startsWith("get") && name.length() > 3 && returnKind != TypeKind.VOID) {
+                getters.putIfAbsent(decapitalize(name.substring(3)), method);
+            } else if (parameters == 0 && name.startsWith("is") && name.length() > 2 && returnKind == TypeKind.BOOLEAN) {
+                getters.put(decapitalize(name.substring(2)), method);
+            } else if (parameters == 1 && name.startsWith("set") && name.length() > 3 && returnKind == TypeKind.VOID) {
+                setters.putIfAbsent(decapitalize(name.substring(3)), method);
+            }
+        }
+
+        List<Property> properties = new ArrayList<>();
+        getters.forEach((name, getter) -> {
+            ExecutableElement setter = setters.get(name);
+            if (setter == null) {
+                return;
+            }
+            TypeMirror propertyType = member(owner, getter).getReturnType();
+            if (processingEnv.getTypeUtils().isSameType(propertyType, member(owner, setter).getParameterTypes().get(0))) {
+                Property property = new Property(name, propertyType);
+                property.read = getter.getSimpleName() + "()";
+                property.write = setter.getSimpleName() + "(%s)";
+                properties.add(property);
+            }
+        });
+        return properties;
+    }
+
+    /**
+     * Whether a member can be used from a class of the given package that does
+     * not extend the member's class.
+     */
+    private boolean isAccessible(Element member, String packageName) {
+        Set<Modifier> modifiers = member.getModifiers();
+        if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.PRIVATE)) {
+            return false;
+        }
+        return modifiers.contains(Modifier.PUBLIC) || packageOf(member).getQualifiedName().contentEquals(packageName);
+    }
+
+    private boolean isVisible(TypeElement type) {
+        for (Element element = type; element instanceof TypeElement; element = element.getEnclosingElement()) {
+            if (element.getModifiers().contains(Modifier.PRIVATE)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isStringCompatible(TypeMirror type) {
+        TypeMirror string = processingEnv.getElementUtils().getTypeElement(String.class.getName()).asType();
+        return processingEnv.getTypeUtils().isAssignable(string, processingEnv.getTypeUtils().erasure(type));
+    }
+
+    private TypeElement superclass(TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+        if (superclass.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        TypeElement element = (TypeElement) ((DeclaredType) superclass).asElement();
+        return element.getQualifiedName().contentEquals(Object.class.getName()) ? null : element;
+    }
+
+    /**
+     * The signature of a method as a member of the annotated class, with the type
+     * variables of its generic superclasses replaced by their bound types.
+     */
+    private ExecutableType member(DeclaredType owner, ExecutableElement method) {
+        return (ExecutableType) processingEnv.getTypeUtils().asMemberOf(owner, method);
+    }
+
+    private PackageElement packageOf(Element element) {
+        return processingEnv.getElementUtils().getPackageOf(element);
+    }
+
+    private String erasure(TypeMirror type) {
+        return processingEnv.getTypeUtils().erasure(type).toString();
+    }
+
+    private String castType(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return processingEnv.getTypeUtils().boxedClass((PrimitiveType) type).getQualifiedName().toString();
+        }
+        return erasure(type);
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    /**
+     * Same rule as {@link java.beans.Introspector#decapitalize(String)}.
+     */
+    private static String decapitalize(String name) {
+        if (name.length() > 1 && Character.isUpperCase(name.charAt(1)) && Character.isUpperCase(name.charAt(0))) {
+            return name;
+        }
+        return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+    }
+
+    /**
+     * A property and the expressions reading and writing it, null when it cannot
+     * be read or written. The write expression has a %s placeholder for the value.
+     */
+    private static final class Property {
+
+        private final String name;
+        private final TypeMirror type;
+        private String read;
+        private String write;
+
+        Property(String name, TypeMirror type) {
+            this.name = name;
+            this.type = type;
+        }
+    }
+}
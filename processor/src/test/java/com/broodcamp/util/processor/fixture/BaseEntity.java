@@ -0,0 +1,48 @@
+/**
+ * Broodcamp Library
+ * Copyright (C) 2019 Edward P. Legaspi (https://github.com/czetsuya)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.broodcamp.util.processor.fixture;
+
+import java.io.Serializable;
+
+/**
+ * Generic base class whose fields and accessors are typed by a type variable
+ * that subclasses bind.
+ *
+ * @author Edward P. Legaspi | czetsuya@gmail.com
+ */
+public abstract class BaseEntity<ID extends Serializable> {
+
+    protected ID id;
+    private ID parentId;
+
+    public ID getId() {
+        return id;
+    }
+
+    public void setId(ID id) {
+        this.id = id;
+    }
+
+    public ID getParentId() {
+        return parentId;
+    }
+
+    public void setParentId(ID parentId) {
+        this.parentId = parentId;
+    }
+}
@@ -0,0 +1,43 @@
+/**
+ * Broodcamp Library
+ * Copyright (C) 2019 Edward P. Legaspi (https://github.com/czetsuya)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.broodcamp.util.processor.fixture;
+
+import com.broodcamp.util.GenerateAccessor;
+
+/**
+ * Entity extending a generic base class. The generated accessor must use the
+ * bound type of the inherited properties, Long, and not their erasure, and
+ * check the boxed type of its primitive fields before writing them.
+ *
+ * @author Edward P. Legaspi | czetsuya@gmail.com
+ */
+@GenerateAccessor
+public class Customer extends BaseEntity<Long> {
+
+    private String name;
+
+    int visits;
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+}
@@ -0,0 +1,122 @@
+/**
+ * Broodcamp Library
+ * Copyright (C) 2019 Edward P. Legaspi (https://github.com/czetsuya)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.broodcamp.util;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Base spliterator over the tuples of a cartesian product, addressed by their
+ * long index. Each split positions a {@link MixedRadixCounter} once on its first
+ * tuple and then increments it, and splitting halves the index range so
+ * parallel streams get balanced work.
+ *
+ * @param <T> the type of the elements built from the counter
+ * @author Edward P. Legaspi | czetsuya@gmail.com
+ */
+abstract class AbstractProductSpliterator<T> implements Spliterator<T> {
+
+    protected final int[] radices;
+
+    private long index;
+    private final long fence;
+    private MixedRadixCounter counter;
+
+    protected AbstractProductSpliterator(int[] radices, long index, long fence) {
+        this.radices = radices;
+        this.index = index;
+        this.fence = fence;
+    }
+
+    /**
+     * Creates the spliterator of the tuples [index, fence).
+     */
+    protected abstract AbstractProductSpliterator<T> split(long index, long fence);
+
+    /**
+     * Called when the digits of the counter changed from a dimension onward.
+     */
+    protected abstract void onChange(MixedRadixCounter counter, int fromDimension);
+
+    /**
+     * Builds the element of the current tuple.
+     */
+    protected abstract T current(MixedRadixCounter counter);
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if (index >= fence) {
+            return false;
+        }
+        if (counter == null) {
+            seek();
+        }
+        action.accept(current(counter));
+        increment();
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super T> action) {
+        if (index >= fence) {
+            return;
+        }
+        if (counter == null) {
+            seek();
+        }
+        while (index < fence) {
+            action.accept(current(counter));
+            increment();
+        }
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        long mid = (index + fence) >>> 1;
+        if (mid <= index) {
+            return null;
+        }
+
+        Spliterator<T> prefix = split(index, mid);
+        index = mid;
+        counter = null;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return fence - index;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+    }
+
+    private void seek() {
+        counter = new MixedRadixCounter(radices);
+        counter.seek(index);
+        onChange(counter, 0);
+    }
+
+    private void increment() {
+        if (++index < fence) {
+            onChange(counter, counter.increment());
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/**
+ * Broodcamp Library
+ * Copyright (C) 2019 Edward P. Legaspi (https://github.com/czetsuya)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.broodcamp.util;
+
+/**
+ * Finds the {@link PropertyAccessor} generated for a class annotated with
+ * {@link GenerateAccessor}. The generated class is in the package of the
+ * accessed class and named after it with {@link #SUFFIX}, nested class names
+ * being joined with underscores: the accessor of {@code com.acme.Order.Line}
+ * is {@code com.acme.Order_Line_Accessor}.
+ * <p>
+ * The lookup is done once per class; classes without generated accessor are
+ * handled by reflection.
+ *
+ * @author Edward P. Legaspi | czetsuya@gmail.com
+ */
+public class Accessors {
+
+    public static final String SUFFIX = "_Accessor";
+
+    private static final ClassValue<PropertyAccessor<?>> accessors = new ClassValue<PropertyAccessor<?>>() {
+
+        @Override
+        protected PropertyAccessor<?> computeValue(Class<?> type) {
+            return load(type);
+        }
+    };
+
+    private Accessors() {
+
+    }
+
+    /**
+     * @param <T>  the accessed class
+     * @param type the accessed class
+     * @return the generated accessor of the class, null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> PropertyAccessor<T> forClass(Class<T> type) {
+        return (PropertyAccessor<T>) accessors.get(type);
+    }
+
+    /**
+     * @param type a class
+     * @return the name of the accessor generated for the class
+     */
+    public static String getAccessorName(Class<?> type) {
+        String packageName = type.getPackageName();
+        String simpleName = packageName.isEmpty() ? type.getName() : type.getName().substring(packageName.length() + 1);
+        return (packageName.isEmpty() ? "" : packageName + ".") + simpleName.replace('$', '_') + SUFFIX;
+    }
+
+    private static PropertyAccessor<?> load(Class<?> type) {
+        if (type.isPrimitive() || type.isArray() || type.isInterface() || type.getClassLoader() == null) {
+            return null;
+        }
+
+        Class<?> accessorClass;
+        try {
+            accessorClass = Class.forName(getAccessorName(type), true, type.getClassLoader());
+        } catch (ClassNotFoundException | LinkageError e) {
+            return null;
+        }
+
+        if (!PropertyAccessor.class.isAssignableFrom(accessorClass)) {
+            return null;
+        }
+        try {
+            PropertyAccessor<?> accessor = (PropertyAccessor<?>) accessorClass.getDeclaredConstructor().newInstance();
+            return accessor.getType() == type ? accessor : null;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+}
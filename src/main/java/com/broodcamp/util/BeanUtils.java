@@ -26,13 +26,60 @@ import org.apache.commons.beanutils.BeanUtilsBean;
  */
 public class BeanUtils {
 
+    /**
+     * Name of the copy operation reported to {@link Metrics}, by source class.
+     */
+    public static final String COPY_PROPERTIES = "BeanUtils.copyProperties";
+
+    /**
+     * Shared copier, so that property descriptors and converters are resolved
+     * once per class.
+     */
+    private static final NullAwareBeanUtilsBean COPIER = new NullAwareBeanUtilsBean();
+
     private BeanUtils() {
 
     }
 
+    /**
+     * Copies the non null properties of an object to another. Objects of the same
+     * class annotated with {@link GenerateAccessor} are copied by their generated
+     * accessor, other objects by {@link NullAwareBeanUtilsBean}.
+     * 
+     * @param source the object to copy from
+     * @param target the object to copy to
+     * @throws IllegalAccessException    if a property cannot be accessed
+     * @throws InvocationTargetException if a getter or setter fails
+     */
     public static void copyProperties(Object source, Object target) throws IllegalAccessException, InvocationTargetException {
-        
-        BeanUtilsBean bean = new NullAwareBeanUtilsBean();
-        bean.copyProperties(target, source);
+        copyProperties(source, target, COPIER);
+    }
+
+    /**
+     * Copies the properties of an object to another with a given copier, e.g. a
+     * {@link NullAwareBeanUtilsBean} with its own {@link TypeConverters}. Objects
+     * of the same class with a generated accessor are still copied by it.
+     * 
+     * @param source the object to copy from
+     * @param target the object to copy to
+     * @param copier copies the objects without a generated accessor
+     * @throws IllegalAccessException    if a property cannot be accessed
+     * @throws InvocationTargetException if a getter or setter fails
+     */
+    @SuppressWarnings("unchecked")
+    public static void copyProperties(Object source, Object target, BeanUtilsBean copier) throws IllegalAccessException, InvocationTargetException {
+
+        long start = Metrics.start();
+        try {
+            PropertyAccessor<Object> accessor = source != null && target != null && source.getClass() == target.getClass() ? Accessors.forClass((Class<Object>) source.getClass()) : null;
+            if (accessor != null) {
+                accessor.copyProperties(source, target);
+                return;
+            }
+
+            copier.copyProperties(target, source);
+        } finally {
+            Metrics.record(COPY_PROPERTIES, source != null ? source.getClass() : null, start, 0);
+        }
     }
 }
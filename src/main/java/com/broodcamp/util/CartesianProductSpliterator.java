@@ -0,0 +1,82 @@
+/**
+ * Broodcamp Library
+ * Copyright (C) 2019 Edward P. Legaspi (https://github.com/czetsuya)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.broodcamp.util;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Spliterator over the tuples of a cartesian product of object dimensions,
+ * built on the index tuples of {@link AbstractProductSpliterator}.
+ * <p>
+ * In flyweight mode every tuple is the same read-only view over a buffer that
+ * is updated in place; only the positions that changed since the previous
+ * tuple are rewritten.
+ *
+ * @author Edward P. Legaspi | czetsuya@gmail.com
+ */
+final class CartesianProductSpliterator extends AbstractProductSpliterator<List<Object>> {
+
+    private final Object[][] dimensions;
+    private final boolean flyweight;
+
+    private final Object[] buffer;
+    private final List<Object> view;
+
+    CartesianProductSpliterator(Object[][] dimensions, boolean flyweight) {
+        this(dimensions, radices(dimensions), flyweight);
+    }
+
+    private CartesianProductSpliterator(Object[][] dimensions, int[] radices, boolean flyweight) {
+        this(dimensions, radices, flyweight, 0, MixedRadixCounter.size(radices));
+    }
+
+    private CartesianProductSpliterator(Object[][] dimensions, int[] radices, boolean flyweight, long index, long fence) {
+        super(radices, index, fence);
+        this.dimensions = dimensions;
+        this.flyweight = flyweight;
+        this.buffer = new Object[dimensions.length];
+        this.view = Collections.unmodifiableList(Arrays.asList(buffer));
+    }
+
+    static int[] radices(Object[][] dimensions) {
+        int[] radices = new int[dimensions.length];
+        for (int d = 0; d < dimensions.length; d++) {
+            radices[d] = dimensions[d].length;
+        }
+        return radices;
+    }
+
+    @Override
+    protected AbstractProductSpliterator<List<Object>> split(long index, long fence) {
+        return new CartesianProductSpliterator(dimensions, radices, flyweight, index, fence);
+    }
+
+    @Override
+    protected void onChange(MixedRadixCounter counter, int fromDimension) {
+        for (int d = fromDimension; d < buffer.length; d++) {
+            buffer[d] = dimensions[d][counter.digit(d)];
+        }
+    }
+
+    @Override
+    protected List<Object> current(MixedRadixCounter counter) {
+        return flyweight ? view : Collections.unmodifiableList(Arrays.asList(buffer.clone()));
+    }
+}
@@ -0,0 +1,131 @@
+/**
+ * Broodcamp Library
+ * Copyright (C) 2019 Edward P. Legaspi (https://github.com/czetsuya)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.broodcamp.util;
+
+import java.lang.reflect.Modifier;
+
+/**
+ * A class found on the classpath by {@link ClassScanner}, described from its
+ * class-file header without loading it. The class is loaded on demand by
+ * {@link #load()}.
+ *
+ * @author Edward P. Legaspi | czetsuya@gmail.com
+ */
+public class ClassDescriptor {
+
+    private static final int ACC_INTERFACE = 0x0200;
+    private static final int ACC_ANNOTATION = 0x2000;
+    private static final int ACC_ENUM = 0x4000;
+
+    private final String name;
+    private final String superclassName;
+    private final String[] interfaceNames;
+    private final int accessFlags;
+    private final String source;
+    private final ClassLoader classLoader;
+
+    private volatile Class<?> loadedClass;
+
+    ClassDescriptor(String name, String superclassName, String[] interfaceNames, int accessFlags, String source, ClassLoader classLoader) {
+        this.name = name;
+        this.superclassName = superclassName;
+        this.interfaceNames = interfaceNames;
+        this.accessFlags = accessFlags;
+        this.source = source;
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * @return the binary name of the class, e.g. com.broodcamp.Customer$Address
+     */
+    public String getName() {
+        return name;
+    }
+
+    public String getPackageName() {
+        int pos = name.lastIndexOf('.');
+        return pos > 0 ? name.substring(0, pos) : "";
+    }
+
+    /**
+     * @return the binary name of the superclass, null for java.lang.Object and
+     *         module-info
+     */
+    public String getSuperclassName() {
+        return superclassName;
+    }
+
+    public String[] getInterfaceNames() {
+        return interfaceNames.clone();
+    }
+
+    /**
+     * @return the access flags of the class-file header
+     */
+    public int getAccessFlags() {
+        return accessFlags;
+    }
+
+    public boolean isInterface() {
+        return (accessFlags & ACC_INTERFACE) != 0;
+    }
+
+    public boolean isAnnotation() {
+        return (accessFlags & ACC_ANNOTATION) != 0;
+    }
+
+    public boolean isEnum() {
+        return (accessFlags & ACC_ENUM) != 0;
+    }
+
+    public boolean isAbstract() {
+        return Modifier.isAbstract(accessFlags);
+    }
+
+    public boolean isPublic() {
+        return Modifier.isPublic(accessFlags);
+    }
+
+    /**
+     * @return the directory or jar the class was read from
+     */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Loads the class, without initializing it, with the class loader that was
+     * scanned. The class is loaded once.
+     *
+     * @return the class
+     * @throws ClassNotFoundException if the class loader cannot find the class
+     */
+    public Class<?> load() throws ClassNotFoundException {
+        Class<?> result = loadedClass;
+        if (result == null) {
+            result = Class.forName(name, false, classLoader);
+            loadedClass = result;
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,486 @@
+/**
+ * Broodcamp Library
+ * Copyright (C) 2019 Edward P. Legaspi (https://github.com/czetsuya)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.broodcamp.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.reflections.ReflectionsException;
+import org.reflections.vfs.Vfs;
+
+/**
+ * Enumerates the classes of a package and its subpackages from the classpath
+ * directories and jars of a class loader, without loading them. Only the
+ * header of each class file is parsed: its constant pool, access flags, name,
+ * superclass and interfaces.
+ * <p>
+ * Directory files and jars are read in parallel on the common fork-join pool.
+ * Locations that are neither a file nor a jar on the file system, such as the
+ * vfs: URLs of WildFly or the nested jars of Spring Boot, are read through the
+ * virtual file system of Reflections.
+ * <p>
+ * The packages of each jar are remembered until the jar changes, so later scans
+ * do not open the jars without classes in the scanned package. A class file that
+ * cannot be parsed is logged and skipped.
+ *
+ * @author Edward P. Legaspi | czetsuya@gmail.com
+ */
+public class ClassScanner {
+
+    /**
+     * Name of the scans reported to {@link Metrics}, with the number of classes
+     * found as size.
+     */
+    public static final String SCAN = "ClassScanner.scan";
+
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final String CLASS_SUFFIX = ".class";
+
+    private static final Logger LOG = Logger.getLogger(ClassScanner.class.getName());
+
+    private static final Map<Path, JarPackages> jarPackages = new ConcurrentHashMap<>();
+
+    private ClassScanner() {
+
+    }
+
+    /**
+     * Scans a package with the context class loader of the current thread.
+     *
+     * @see #scan(ClassLoader, String)
+     */
+    public static List<ClassDescriptor> scan(String packageName) throws IOException {
+        return scan(Thread.currentThread().getContextClassLoader(), packageName);
+    }
+
+    /**
+     * Returns the classes of a package and its subpackages. The classpath roots
+     * are the locations of the package known to the class loader and the entries
+     * of the java.class.path system property. A class found in several roots is
+     * returned once, from the first root.
+     *
+     * @param classLoader the class loader to scan and to load the classes with
+     * @param packageName the package name, empty for all the classes
+     * @return the classes sorted by name
+     * @throws IOException if a directory or jar cannot be read
+     */
+    public static List<ClassDescriptor> scan(ClassLoader classLoader, String packageName) throws IOException {
+        long start = Metrics.start();
+        int size = 0;
+        try {
+            String prefix = packageName.isEmpty() ? "" : packageName.replace('.', '/') + "/";
+
+            List<Source> sources = new ArrayList<>();
+            List<URL> locations = new ArrayList<>();
+            for (Path root : roots(classLoader, prefix, locations)) {
+                if (Files.isDirectory(root)) {
+                    Path directory = root.resolve(prefix);
+                    if (Files.isDirectory(directory)) {
+                        try (Stream<Path> files = Files.walk(directory)) {
+                            files.filter(ClassScanner::isClassFile).forEach(file -> sources.add(new Source(root, file)));
+                        }
+                    }
+                } else if (Files.isRegularFile(root)) {
+                    sources.add(new Source(root, null));
+                }
+            }
+            for (URL location : locations) {
+                sources.add(new Source(location));
+            }
+
+            List<ClassDescriptor> classes;
+            try {
+                classes = sources.parallelStream() //
+                        .flatMap(source -> source.read(prefix, classLoader).stream()) //
+                        .collect(Collectors.toList());
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            // the first root wins, like in class loading
+            Set<String> names = new LinkedHashSet<>();
+            List<ClassDescriptor> result = new ArrayList<>(classes.size());
+            for (ClassDescriptor descriptor : classes) {
+                if (names.add(descriptor.getName())) {
+                    result.add(descriptor);
+                }
+            }
+            result.sort(Comparator.comparing(ClassDescriptor::getName));
+            size = result.size();
+            return result;
+
+        } finally {
+            Metrics.record(SCAN, null, start, size);
+        }
+    }
+
+    /**
+     * Returns the classpath roots on the file system. The locations of the package
+     * that are not on the file system are added to locations.
+     */
+    private static Set<Path> roots(ClassLoader classLoader, String prefix, List<URL> locations) throws IOException {
+        Set<Path> roots = new LinkedHashSet<>();
+
+        if (!prefix.isEmpty()) {
+            Enumeration<URL> urls = classLoader.getResources(prefix.substring(0, prefix.length() - 1));
+            while (urls.hasMoreElements()) {
+                URL url = urls.nextElement();
+                Path root = toRoot(url, prefix);
+                if (root != null) {
+                    roots.add(root);
+                } else {
+                    locations.add(url);
+                }
+            }
+        }
+
+        String classPath = System.getProperty("java.class.path", "");
+        for (String entry : classPath.split(File.pathSeparator)) {
+            if (!entry.isEmpty()) {
+                roots.add(Paths.get(entry).toAbsolutePath().normalize());
+            }
+        }
+        return roots;
+    }
+
+    private static Path toRoot(URL url, String prefix) throws IOException {
+        try {
+            if ("file".equals(url.getProtocol())) {
+                // strip the package directories from the path of the package
+                Path path = Paths.get(url.toURI());
+                for (int i = prefix.split("/").length; i > 0 && path != null; i--) {
+                    path = path.getParent();
+                }
+                return path != null ? path.toAbsolutePath().normalize() : null;
+            }
+            if ("jar".equals(url.getProtocol())) {
+                URL jarUrl = ((JarURLConnection) url.openConnection()).getJarFileURL();
+                return "file".equals(jarUrl.getProtocol()) ? Paths.get(jarUrl.toURI()).toAbsolutePath().normalize() : null;
+            }
+        } catch (URISyntaxException e) {
+            throw new IOException("Invalid classpath URL " + url, e);
+        }
+        return null;
+    }
+
+    private static boolean isClassFile(Path file) {
+        return isClassFile(file.getFileName().toString());
+    }
+
+    private static boolean isClassFile(String fileName) {
+        return fileName.endsWith(CLASS_SUFFIX) && !fileName.equals("module-info.class") && !fileName.equals("package-info.class");
+    }
+
+    private static boolean isClassEntry(JarEntry entry, String prefix) {
+        String name = entry.getName();
+        return !entry.isDirectory() && name.startsWith(prefix) && name.endsWith(CLASS_SUFFIX) && !name.endsWith("module-info.class")
+                && !name.endsWith("package-info.class") && !name.startsWith("META-INF/");
+    }
+
+    /**
+     * Parses the header of a class file.
+     *
+     * @param bytes       the class file
+     * @param source      where the class file was read from
+     * @param classLoader the class loader of the class
+     * @return the description of the class
+     * @throws IOException if the class file is malformed
+     */
+    static ClassDescriptor parse(byte[] bytes, String source, ClassLoader classLoader) throws IOException {
+        try {
+            return doParse(bytes, source, classLoader);
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("Truncated class file in " + source, e);
+        }
+    }
+
+    private static ClassDescriptor doParse(byte[] bytes, String source, ClassLoader classLoader) throws IOException {
+        if (bytes.length < 10 || readInt(bytes, 0) != MAGIC) {
+            throw new IOException("Not a class file in " + source);
+        }
+
+        // offsets of the constant pool entries, the pool is indexed from 1
+        int count = readUnsignedShort(bytes, 8);
+        int[] offsets = new int[count];
+        int pos = 10;
+        for (int i = 1; i < count; i++) {
+            offsets[i] = pos;
+            int tag = bytes[pos] & 0xFF;
+            switch (tag) {
+            case 1: // Utf8
+                pos += 3 + readUnsignedShort(bytes, pos + 1);
+                break;
+            case 7: // Class
+            case 8: // String
+            case 16: // MethodType
+            case 19: // Module
+            case 20: // Package
+                pos += 3;
+                break;
+            case 15: // MethodHandle
+                pos += 4;
+                break;
+            case 3: // Integer
+            case 4: // Float
+            case 9: // Fieldref
+            case 10: // Methodref
+            case 11: // InterfaceMethodref
+            case 12: // NameAndType
+            case 17: // Dynamic
+            case 18: // InvokeDynamic
+                pos += 5;
+                break;
+            case 5: // Long
+            case 6: // Double
+                pos += 9;
+                i++;
+                break;
+            default:
+                throw new IOException("Invalid constant pool tag " + tag + " in " + source);
+            }
+        }
+
+        int accessFlags = readUnsignedShort(bytes, pos);
+        String name = className(bytes, offsets, readUnsignedShort(bytes, pos + 2));
+        String superclassName = className(bytes, offsets, readUnsignedShort(bytes, pos + 4));
+        int interfaceCount = readUnsignedShort(bytes, pos + 6);
+        String[] interfaceNames = new String[interfaceCount];
+        for (int i = 0; i < interfaceCount; i++) {
+            interfaceNames[i] = className(bytes, offsets, readUnsignedShort(bytes, pos + 8 + 2 * i));
+        }
+
+        return new ClassDescriptor(name, superclassName, interfaceNames, accessFlags, source, classLoader);
+    }
+
+    private static String className(byte[] bytes, int[] offsets, int classIndex) throws IOException {
+        if (classIndex == 0) {
+            return null;
+        }
+        int utf8Offset = offsets[readUnsignedShort(bytes, offsets[classIndex] + 1)];
+        int length = readUnsignedShort(bytes, utf8Offset + 1);
+
+        // class names are almost always ASCII, the modified UTF-8 decoder handles the rest
+        boolean ascii = true;
+        for (int i = utf8Offset + 3; i < utf8Offset + 3 + length && ascii; i++) {
+            ascii = bytes[i] > 0;
+        }
+        String internalName;
+        if (ascii) {
+            char[] chars = new char[length];
+            for (int i = 0; i < length; i++) {
+                chars[i] = (char) bytes[utf8Offset + 3 + i];
+            }
+            internalName = new String(chars);
+        } else {
+            internalName = new DataInputStream(new ByteArrayInputStream(bytes, utf8Offset + 1, length + 2)).readUTF();
+        }
+        return internalName.replace('/', '.');
+    }
+
+    /**
+     * Parses the header of a class file, logging and skipping a malformed one
+     * rather than failing the whole scan.
+     *
+     * @return the description of the class, null if the class file is malformed
+     */
+    private static ClassDescriptor parseOrSkip(byte[] bytes, String source, String entry, ClassLoader classLoader) {
+        try {
+            return parse(bytes, source, classLoader);
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Cannot parse class file " + entry + " from " + source + ", skipping it", e);
+            return null;
+        }
+    }
+
+    private static String packageOf(String entryName) {
+        return entryName.substring(0, entryName.lastIndexOf('/') + 1);
+    }
+
+    private static int readUnsignedShort(byte[] bytes, int pos) {
+        return ((bytes[pos] & 0xFF) << 8) | (bytes[pos + 1] & 0xFF);
+    }
+
+    private static int readInt(byte[] bytes, int pos) {
+        return (readUnsignedShort(bytes, pos) << 16) | readUnsignedShort(bytes, pos + 2);
+    }
+
+    /**
+     * A unit of parallel work: one class file of a directory, a whole jar, or a
+     * location read through the virtual file system of Reflections.
+     */
+    private static final class Source {
+
+        private final Path root;
+        private final Path file;
+        private final URL location;
+
+        Source(Path root, Path file) {
+            this.root = root;
+            this.file = file;
+            this.location = null;
+        }
+
+        Source(URL location) {
+            this.root = null;
+            this.file = null;
+            this.location = location;
+        }
+
+        List<ClassDescriptor> read(String prefix, ClassLoader classLoader) {
+            try {
+                if (location != null) {
+                    return readLocation(prefix, classLoader);
+                }
+                if (file != null) {
+                    ClassDescriptor descriptor = parseOrSkip(Files.readAllBytes(file), root.toString(), root.relativize(file).toString(), classLoader);
+                    return descriptor != null ? Collections.singletonList(descriptor) : Collections.emptyList();
+                }
+                return readJar(prefix, classLoader);
+
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private List<ClassDescriptor> readJar(String prefix, ClassLoader classLoader) throws IOException {
+            BasicFileAttributes attributes = Files.readAttributes(root, BasicFileAttributes.class);
+            JarPackages known = jarPackages.get(root);
+            if (known != null && known.isCurrent(attributes) && !known.contains(prefix)) {
+                return Collections.emptyList();
+            }
+
+            // the packages are collected while reading, so the jar is opened once
+            Set<String> packages = new HashSet<>();
+            List<ClassDescriptor> classes = new ArrayList<>();
+            try (JarFile jar = new JarFile(root.toFile(), false)) {
+                Enumeration<JarEntry> entries = jar.entries();
+                while (entries.hasMoreElements()) {
+                    JarEntry entry = entries.nextElement();
+                    if (!isClassEntry(entry, "")) {
+                        continue;
+                    }
+                    packages.add(packageOf(entry.getName()));
+                    if (entry.getName().startsWith(prefix)) {
+                        try (InputStream in = jar.getInputStream(entry)) {
+                            ClassDescriptor descriptor = parseOrSkip(in.readAllBytes(), root.toString(), entry.getName(), classLoader);
+                            if (descriptor != null) {
+                                classes.add(descriptor);
+                            }
+                        }
+                    }
+                }
+            }
+            jarPackages.put(root, new JarPackages(attributes, packages));
+            return classes;
+        }
+
+        private List<ClassDescriptor> readLocation(String prefix, ClassLoader classLoader) throws IOException {
+            Vfs.Dir dir;
+            try {
+                dir = Vfs.fromURL(location);
+            } catch (ReflectionsException e) {
+                LOG.log(Level.WARNING, "Cannot scan classpath location " + location + ", skipping it", e);
+                return Collections.emptyList();
+            }
+
+            // the location can be the package or its whole jar, the class names tell
+            String namePrefix = prefix.replace('/', '.');
+            List<ClassDescriptor> classes = new ArrayList<>();
+            try {
+                for (Vfs.File classFile : dir.getFiles()) {
+                    if (!isClassFile(classFile.getName()) || classFile.getRelativePath().startsWith("META-INF/")) {
+                        continue;
+                    }
+                    try (InputStream in = classFile.openInputStream()) {
+                        ClassDescriptor descriptor = parseOrSkip(in.readAllBytes(), location.toString(), classFile.getRelativePath(), classLoader);
+                        if (descriptor != null && descriptor.getName().startsWith(namePrefix)) {
+                            classes.add(descriptor);
+                        }
+                    }
+                }
+            } catch (ReflectionsException e) {
+                throw new IOException("Cannot read classpath location " + location, e);
+            } finally {
+                dir.close();
+            }
+            return classes;
+        }
+    }
+
+    /**
+     * The packages of a jar that contain classes, with the modification time and
+     * size of the jar they were read from.
+     */
+    private static final class JarPackages {
+
+        private final FileTime lastModified;
+        private final long size;
+        private final String[] packages;
+
+        JarPackages(BasicFileAttributes attributes, Set<String> packages) {
+            this.lastModified = attributes.lastModifiedTime();
+            this.size = attributes.size();
+            this.packages = packages.toArray(new String[0]);
+        }
+
+        boolean isCurrent(BasicFileAttributes attributes) {
+            return lastModified.equals(attributes.lastModifiedTime()) && size == attributes.size();
+        }
+
+        /**
+         * @param prefix a package directory ending with a slash, empty for all
+         * @return true if the jar has classes in the package or its subpackages
+         */
+        boolean contains(String prefix) {
+            for (String name : packages) {
+                if (name.startsWith(prefix)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
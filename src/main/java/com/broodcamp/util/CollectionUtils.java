@@ -17,12 +17,19 @@
  */
 package com.broodcamp.util;
 
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Lists;
 
 /**
  * Collection of utility methods for managing collections.
@@ -54,14 +61,19 @@ public class CollectionUtils {
      * ]
      * </pre>
      * 
+     * The result is a random access view: its elements are built on demand from
+     * their index.
+     * 
      * @param elements list of list of objects
      * @return cartesian product of the list of list
+     * @throws IllegalArgumentException if the product has more than
+     *                                  {@link Integer#MAX_VALUE} elements, use
+     *                                  {@link #streamCartesianProduct(Collection)}
+     *                                  instead
      */
     public static List<List<Object>> cartersianProduct(Collection<Collection<?>> elements) {
 
-        List<ImmutableList<?>> immutableElements = makeListofImmutable(elements);
-
-        return Lists.cartesianProduct(immutableElements);
+        return new CartesianProductList(toDimensions(elements));
     }
 
     /**
@@ -79,4 +91,152 @@ public class CollectionUtils {
 
         return converted;
     }
+
+    /**
+     * Computes the number of elements of the cartesian product of a list of
+     * collections.
+     * 
+     * @param elements list of list of objects
+     * @return the size of the cartesian product
+     * @throws IllegalArgumentException if the size does not fit in a long
+     */
+    public static long cartesianProductSize(Collection<? extends Collection<?>> elements) {
+        return MixedRadixCounter.size(elements.stream().mapToInt(Collection::size).toArray());
+    }
+
+    /**
+     * Lazily computes the cartesian product of a list of collections. Unlike
+     * {@link #cartersianProduct(Collection)} the product is not limited to
+     * {@link Integer#MAX_VALUE} elements and splits evenly in parallel streams.
+     * Each element of the stream is a new read-only list.
+     * 
+     * @param elements list of list of objects
+     * @return a sized stream of the elements of the cartesian product
+     * @see #cartersianProduct(Collection)
+     */
+    public static Stream<List<Object>> streamCartesianProduct(Collection<? extends Collection<?>> elements) {
+        return streamCartesianProduct(elements, false);
+    }
+
+    /**
+     * Lazily computes the cartesian product of a list of collections.
+     * <p>
+     * In flyweight mode the stream returns the same read-only list for every
+     * element of the product, updated in place between elements, so no list is
+     * allocated per element. The list must not be kept or collected: copy it if
+     * needed. In a parallel stream each thread gets its own list.
+     * 
+     * @param elements  list of list of objects
+     * @param flyweight whether to reuse a single list per stream split
+     * @return a sized stream of the elements of the cartesian product
+     */
+    public static Stream<List<Object>> streamCartesianProduct(Collection<? extends Collection<?>> elements, boolean flyweight) {
+        return StreamSupport.stream(new CartesianProductSpliterator(toDimensions(elements), flyweight), false);
+    }
+
+    /**
+     * Enumerates the cartesian product of a list of collections, skipping every
+     * element that starts with a rejected prefix.
+     * 
+     * @param elements     list of list of objects
+     * @param prefixFilter tests partial elements, from the first value up to the
+     *                     complete element
+     * @param consumer     receives the accepted elements
+     * @see #forEachCartesianProduct(Collection, Predicate, Consumer, boolean)
+     */
+    public static void forEachCartesianProduct(Collection<? extends Collection<?>> elements, Predicate<List<Object>> prefixFilter, Consumer<List<Object>> consumer) {
+        forEachCartesianProduct(elements, prefixFilter, consumer, false);
+    }
+
+    /**
+     * Enumerates the cartesian product of a list of collections, skipping every
+     * element that starts with a rejected prefix.
+     * <p>
+     * The filter is called with the partial elements [a], [a, 1], [a, 1, x]...
+     * As soon as it returns false, none of the elements starting with that prefix
+     * is built or tested. The list passed to the filter is a read-only view only
+     * valid during the call. Each accepted element is passed to the consumer as a
+     * new read-only list.
+     * <p>
+     * In parallel the work is split on the leading dimensions and run in the
+     * common {@link java.util.concurrent.ForkJoinPool}: the filter and the
+     * consumer are then called concurrently and in no particular order.
+     * 
+     * @param elements     list of list of objects
+     * @param prefixFilter tests partial elements, from the first value up to the
+     *                     complete element
+     * @param consumer     receives the accepted elements
+     * @param parallel     whether to enumerate on all cores
+     */
+    public static void forEachCartesianProduct(Collection<? extends Collection<?>> elements, Predicate<List<Object>> prefixFilter, Consumer<List<Object>> consumer,
+            boolean parallel) {
+
+        PrunedCartesianProduct product = new PrunedCartesianProduct(toDimensions(elements), prefixFilter, consumer);
+        if (parallel) {
+            product.runParallel();
+        } else {
+            product.run();
+        }
+    }
+
+    /**
+     * Lazily computes the index tuples of the product of dimensions of the given
+     * sizes. For example sizes [2, 3] give [0, 0], [0, 1], [0, 2], [1, 0], [1, 1],
+     * [1, 2]. Each element of the stream is a new array; to iterate without
+     * allocating use a {@link MixedRadixCounter}.
+     * 
+     * @param sizes the size of each dimension
+     * @return a sized stream of the index tuples
+     * @throws IllegalArgumentException if the product has more than
+     *                                  {@link Long#MAX_VALUE} elements
+     */
+    public static Stream<int[]> streamIndexProduct(int... sizes) {
+        return StreamSupport.stream(new IndexProductSpliterator(sizes.clone()), false);
+    }
+
+    private static Object[][] toDimensions(Collection<? extends Collection<?>> elements) {
+        Object[][] dimensions = new Object[elements.size()][];
+        int i = 0;
+        for (Collection<?> dimension : elements) {
+            dimensions[i++] = dimension.toArray();
+        }
+        return dimensions;
+    }
+
+    /**
+     * Random access view of a cartesian product.
+     */
+    private static class CartesianProductList extends AbstractList<List<Object>> implements RandomAccess {
+
+        private final Object[][] dimensions;
+        private final int size;
+
+        CartesianProductList(Object[][] dimensions) {
+            this.dimensions = dimensions;
+            long size = MixedRadixCounter.size(CartesianProductSpliterator.radices(dimensions));
+            if (size > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("The cartesian product has more than " + Integer.MAX_VALUE + " elements");
+            }
+            this.size = (int) size;
+        }
+
+        @Override
+        public List<Object> get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+
+            Object[] tuple = new Object[dimensions.length];
+            for (int d = dimensions.length - 1; d >= 0; d--) {
+                tuple[d] = dimensions[d][index % dimensions[d].length];
+                index /= dimensions[d].length;
+            }
+            return Collections.unmodifiableList(Arrays.asList(tuple));
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
 }
@@ -0,0 +1,224 @@
+/**
+ * Broodcamp Library
+ * Copyright (C) 2019 Edward P. Legaspi (https://github.com/czetsuya)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.broodcamp.util;
+
+import java.beans.Transient;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Inverted index of the fields referencing each type in a set of entity
+ * classes, built by walking every field of every class once. A field
+ * references its type, or the generic type of its elements for a collection.
+ * <p>
+ * The entity classes are the nodes of a graph where a class has an edge to
+ * each entity class it references directly or through a superclass. The graph
+ * answers transitive reachability queries and orders the classes so that
+ * referenced classes come before the classes referencing them.
+ *
+ * @author Edward P. Legaspi | czetsuya@gmail.com
+ */
+public class EntityReferenceGraph {
+
+    /**
+     * Fields by referencing class, by referenced type.
+     */
+    private final Map<Class<?>, Map<Class<?>, List<Field>>> references = new HashMap<>();
+
+    /**
+     * Referenced entity classes, by referencing entity class.
+     */
+    private final Map<Class<?>, Set<Class<?>>> edges = new LinkedHashMap<>();
+
+    private final List<Class<?>> topologicalOrder;
+
+    private EntityReferenceGraph(Collection<? extends Class<?>> classes) {
+
+        List<Class<?>> nodes = new ArrayList<>(classes);
+        nodes.sort(Comparator.comparing(Class::getName));
+
+        for (Class<?> clazz : nodes) {
+            edges.put(clazz, new LinkedHashSet<>());
+            for (Field field : ReflectionUtils.getAllFields(clazz)) {
+                if (field.isAnnotationPresent(Transient.class)) {
+                    continue;
+                }
+                Class<?> type = referencedType(field, clazz);
+                if (type != null) {
+                    references.computeIfAbsent(type, k -> new LinkedHashMap<>()).computeIfAbsent(clazz, k -> new ArrayList<>()).add(field);
+                }
+            }
+        }
+
+        for (Class<?> node : nodes) {
+            for (Class<?> referencing : getReferences(node).keySet()) {
+                Set<Class<?>> referenced = edges.get(referencing);
+                if (referenced != null) {
+                    referenced.add(node);
+                }
+            }
+        }
+
+        topologicalOrder = Collections.unmodifiableList(new TopologicalSort().sort());
+    }
+
+    /**
+     * Builds the graph of a set of classes.
+     *
+     * @param classes the entity classes
+     * @return the reference graph of the classes
+     */
+    public static EntityReferenceGraph build(Collection<? extends Class<?>> classes) {
+        return new EntityReferenceGraph(classes);
+    }
+
+    private static Class<?> referencedType(Field field, Class<?> clazz) {
+        if (Collection.class.isAssignableFrom(field.getType())) {
+            return ReflectionUtils.getFieldGenericsType(field, clazz);
+        }
+        return field.getType();
+    }
+
+    /**
+     * @return the entity classes of the graph
+     */
+    public Set<Class<?>> getClasses() {
+        return Collections.unmodifiableSet(edges.keySet());
+    }
+
+    /**
+     * Returns the fields declared with a type, or as a collection of that type.
+     *
+     * @param type the referenced type
+     * @return the fields grouped by referencing class
+     */
+    public Map<Class<?>, List<Field>> getDirectReferences(Class<?> type) {
+        Map<Class<?>, List<Field>> result = references.get(type);
+        return result != null ? Collections.unmodifiableMap(result) : Collections.emptyMap();
+    }
+
+    /**
+     * Returns the fields that can hold a value of a type: the fields declared
+     * with the type or one of its superclasses, or as a collection of them.
+     *
+     * @param type the referenced type
+     * @return the fields grouped by referencing class
+     */
+    public Map<Class<?>, List<Field>> getReferences(Class<?> type) {
+        Map<Class<?>, List<Field>> result = new LinkedHashMap<>();
+        for (Class<?> superClass = type; superClass != null && superClass != Object.class; superClass = superClass.getSuperclass()) {
+            Map<Class<?>, List<Field>> fields = references.get(superClass);
+            if (fields != null) {
+                fields.forEach((clazz, classFields) -> result.computeIfAbsent(clazz, k -> new ArrayList<>()).addAll(classFields));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the entity classes reachable by following the references of a
+     * class, transitively.
+     *
+     * @param type an entity class of the graph
+     * @return the reachable classes, without the class itself unless it is part of
+     *         a cycle
+     */
+    public Set<Class<?>> getReachableFrom(Class<?> type) {
+        Set<Class<?>> reachable = new LinkedHashSet<>();
+        List<Class<?>> stack = new ArrayList<>(edges.getOrDefault(type, Collections.emptySet()));
+        while (!stack.isEmpty()) {
+            Class<?> clazz = stack.remove(stack.size() - 1);
+            if (reachable.add(clazz)) {
+                stack.addAll(edges.get(clazz));
+            }
+        }
+        return reachable;
+    }
+
+    /**
+     * Returns the entity classes ordered so that each class comes after the
+     * classes it references, e.g. for bulk inserts. The classes of a reference
+     * cycle are next to each other, in name order.
+     *
+     * @return all the entity classes of the graph
+     */
+    public List<Class<?>> getTopologicalOrder() {
+        return topologicalOrder;
+    }
+
+    /**
+     * Tarjan's strongly connected components, which are emitted referenced
+     * classes first.
+     */
+    private final class TopologicalSort {
+
+        private final Map<Class<?>, Integer> indexes = new HashMap<>();
+        private final Map<Class<?>, Integer> lowLinks = new HashMap<>();
+        private final List<Class<?>> stack = new ArrayList<>();
+        private final Set<Class<?>> onStack = new HashSet<>();
+        private final List<Class<?>> order = new ArrayList<>();
+
+        List<Class<?>> sort() {
+            for (Class<?> clazz : edges.keySet()) {
+                if (!indexes.containsKey(clazz)) {
+                    visit(clazz);
+                }
+            }
+            return order;
+        }
+
+        private void visit(Class<?> clazz) {
+            int index = indexes.size();
+            indexes.put(clazz, index);
+            lowLinks.put(clazz, index);
+            stack.add(clazz);
+            onStack.add(clazz);
+
+            for (Class<?> referenced : edges.get(clazz)) {
+                if (!indexes.containsKey(referenced)) {
+                    visit(referenced);
+                    lowLinks.put(clazz, Math.min(lowLinks.get(clazz), lowLinks.get(referenced)));
+                } else if (onStack.contains(referenced)) {
+                    lowLinks.put(clazz, Math.min(lowLinks.get(clazz), indexes.get(referenced)));
+                }
+            }
+
+            if (lowLinks.get(clazz) == index) {
+                List<Class<?>> component = new ArrayList<>();
+                Class<?> member;
+                do {
+                    member = stack.remove(stack.size() - 1);
+                    onStack.remove(member);
+                    component.add(member);
+                } while (member != clazz);
+                component.sort(Comparator.comparing(Class::getName));
+                order.addAll(component);
+            }
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/**
+ * Broodcamp Library
+ * Copyright (C) 2019 Edward P. Legaspi (https://github.com/czetsuya)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.broodcamp.util;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Case-insensitive lookup table of the constants of an enum, built once per
+ * enum class. A constant is found by its name, its {@link JsonProperty} value
+ * and its {@link JsonAlias} values. Lookups trim the input and compare it in
+ * place, without allocating or throwing.
+ * <p>
+ * Keys are compared per character in upper case, independently of the default
+ * locale. When two keys only differ by case, constant names win over aliases
+ * and upper case names over other names.
+ *
+ * @author Edward P. Legaspi | czetsuya@gmail.com
+ */
+final class EnumLookup {
+
+    private static final ClassValue<EnumLookup> lookups = new ClassValue<EnumLookup>() {
+
+        @Override
+        protected EnumLookup computeValue(Class<?> type) {
+            return new EnumLookup(type);
+        }
+    };
+
+    private final String[] keys;
+    private final Object[] constants;
+    private final int mask;
+
+    private EnumLookup(Class<?> enumType) {
+        Object[] enumConstants = enumType.isEnum() ? enumType.getEnumConstants() : new Object[0];
+
+        // insertion order is the priority order, the first key wins
+        List<String> entryKeys = new ArrayList<>();
+        List<Object> entryConstants = new ArrayList<>();
+        for (int pass = 0; pass < 2; pass++) {
+            for (Object constant : enumConstants) {
+                String name = ((Enum<?>) constant).name();
+                if (name.equals(upperCase(name)) == (pass == 0)) {
+                    entryKeys.add(name);
+                    entryConstants.add(constant);
+                }
+            }
+        }
+        for (Object constant : enumConstants) {
+            for (String alias : aliases(enumType, ((Enum<?>) constant).name())) {
+                entryKeys.add(alias);
+                entryConstants.add(constant);
+            }
+        }
+
+        int capacity = Integer.highestOneBit(Math.max(entryKeys.size(), 1) * 2) * 2;
+        keys = new String[capacity];
+        constants = new Object[capacity];
+        mask = capacity - 1;
+        for (int i = 0; i < entryKeys.size(); i++) {
+            String key = entryKeys.get(i).trim();
+            if (!key.isEmpty() && find(key) == null) {
+                int slot = hash(key, 0, key.length()) & mask;
+                while (keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                constants[slot] = entryConstants.get(i);
+            }
+        }
+    }
+
+    static EnumLookup of(Class<?> enumType) {
+        return lookups.get(enumType);
+    }
+
+    /**
+     * @param value the name or alias of a constant, in any case, with optional
+     *              surrounding whitespace
+     * @return the constant, null if none matches
+     */
+    Object find(String value) {
+        int start = 0;
+        int end = value.length();
+        while (start < end && value.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && value.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (start == end) {
+            return null;
+        }
+
+        int slot = hash(value, start, end) & mask;
+        for (String key = keys[slot]; key != null; key = keys[slot]) {
+            if (matches(key, value, start, end)) {
+                return constants[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    private static List<String> aliases(Class<?> enumType, String name) {
+        List<String> aliases = new ArrayList<>();
+        Field field;
+        try {
+            field = enumType.getField(name);
+        } catch (NoSuchFieldException e) {
+            // constants are always public fields
+            return aliases;
+        }
+
+        JsonProperty property = field.getAnnotation(JsonProperty.class);
+        if (property != null) {
+            aliases.add(property.value());
+        }
+        JsonAlias alias = field.getAnnotation(JsonAlias.class);
+        if (alias != null) {
+            for (String value : alias.value()) {
+                aliases.add(value);
+            }
+        }
+        return aliases;
+    }
+
+    private static int hash(String value, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + upperCase(value.charAt(i));
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean matches(String key, String value, int start, int end) {
+        if (key.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            char other = value.charAt(start + i);
+            if (c != other && upperCase(c) != upperCase(other)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static char upperCase(char c) {
+        if (c < 0x80) {
+            return c >= 'a' && c <= 'z' ? (char) (c - ('a' - 'A')) : c;
+        }
+        return Character.toUpperCase(c);
+    }
+
+    private static String upperCase(String value) {
+        char[] chars = value.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = upperCase(chars[i]);
+        }
+        return new String(chars);
+    }
+}
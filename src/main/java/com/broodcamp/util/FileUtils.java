@@ -0,0 +1,190 @@
+/**
+ * Broodcamp Library
+ * Copyright (C) 2019 Edward P. Legaspi (https://github.com/czetsuya)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.broodcamp.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Collection of utility methods for reading files with NIO.
+ * <p>
+ * Small files are read in one call into an exactly sized byte array, large
+ * files are memory-mapped and decoded straight from the mapping, without a copy
+ * of their bytes on the heap. Files that do not fit in memory can be consumed
+ * line by line or chunk by chunk.
+ *
+ * @author Edward P. Legaspi | czetsuya@gmail.com
+ */
+public class FileUtils {
+
+    /**
+     * Files bigger than this are memory-mapped instead of read into a heap
+     * buffer.
+     */
+    public static final long MAPPING_THRESHOLD = 8L * 1024 * 1024;
+
+    /**
+     * Default number of characters passed to the consumer of
+     * {@link #forEachChunk(Path, Charset, int, Consumer)}.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 8192;
+
+    private FileUtils() {
+
+    }
+
+    /**
+     * Reads a file as an UTF-8 string.
+     *
+     * @param path the file to read
+     * @return the content of the file
+     * @throws IOException if the file cannot be read or is too large for a String
+     */
+    public static String readString(Path path) throws IOException {
+        return readString(path, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads a file as a string. Malformed input is replaced with the charset's
+     * replacement character, like {@link InputStreamReader} does.
+     *
+     * @param path    the file to read
+     * @param charset the charset of the file
+     * @return the content of the file
+     * @throws IOException if the file cannot be read or is too large for a String
+     */
+    public static String readString(Path path, Charset charset) throws IOException {
+        if (Files.size(path) > MAPPING_THRESHOLD) {
+            return readMapped(path, charset);
+        }
+
+        // readAllBytes allocates the array with the size of the file
+        return new String(Files.readAllBytes(path), charset);
+    }
+
+    /**
+     * Reads a file as a string through a memory mapping of it, regardless of its
+     * size.
+     *
+     * @param path    the file to read
+     * @param charset the charset of the file
+     * @return the content of the file
+     * @throws IOException if the file cannot be read or is too large for a String
+     */
+    public static String readMapped(Path path, Charset charset) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return decode(channel.map(FileChannel.MapMode.READ_ONLY, 0, checkSize(path, channel.size())), charset);
+        }
+    }
+
+    /**
+     * Returns the lines of a file as a lazy stream. The stream must be closed to
+     * release the file. Malformed input is replaced with the charset's
+     * replacement character, like {@link #readString(Path, Charset)} does.
+     *
+     * @param path    the file to read
+     * @param charset the charset of the file
+     * @return the lines of the file
+     * @throws IOException if the file cannot be opened
+     */
+    public static Stream<String> lines(Path path, Charset charset) throws IOException {
+        // Files.lines would throw an UncheckedIOException on malformed input
+        BufferedReader reader = new BufferedReader(new InputStreamReader(Files.newInputStream(path), newDecoder(charset)));
+        return reader.lines().onClose(() -> {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Reads a file in chunks of {@link #DEFAULT_CHUNK_SIZE} characters.
+     *
+     * @see #forEachChunk(Path, Charset, int, Consumer)
+     */
+    public static void forEachChunk(Path path, Charset charset, Consumer<CharBuffer> consumer) throws IOException {
+        forEachChunk(path, charset, DEFAULT_CHUNK_SIZE, consumer);
+    }
+
+    /**
+     * Reads a file in chunks of at most chunkSize characters without holding the
+     * whole content in memory. The same buffer is passed on every call: the
+     * consumer must copy what it needs to keep before returning.
+     *
+     * @param path      the file to read
+     * @param charset   the charset of the file
+     * @param chunkSize maximum number of characters per chunk
+     * @param consumer  receives each chunk, positioned for reading
+     * @throws IOException if the file cannot be read
+     */
+    public static void forEachChunk(Path path, Charset charset, int chunkSize, Consumer<CharBuffer> consumer) throws IOException {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+
+        CharBuffer buffer = CharBuffer.allocate(chunkSize);
+        try (InputStream in = Files.newInputStream(path); Reader reader = new InputStreamReader(in, newDecoder(charset))) {
+            while (reader.read(buffer) != -1) {
+                if (buffer.hasRemaining()) {
+                    continue;
+                }
+                buffer.flip();
+                consumer.accept(buffer);
+                buffer.clear();
+            }
+            if (buffer.position() > 0) {
+                buffer.flip();
+                consumer.accept(buffer);
+            }
+        }
+    }
+
+    private static int checkSize(Path path, long size) throws IOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("File " + path + " is too large to be read as a String, read it by lines or chunks instead");
+        }
+        return (int) size;
+    }
+
+    private static String decode(MappedByteBuffer bytes, Charset charset) {
+        // decodes straight from the mapping, without copying the bytes to the heap first
+        return charset.decode(bytes).toString();
+    }
+
+    private static CharsetDecoder newDecoder(Charset charset) {
+        return charset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+}
@@ -0,0 +1,208 @@
+/**
+ * Broodcamp Library
+ * Copyright (C) 2019 Edward P. Legaspi (https://github.com/czetsuya)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.broodcamp.util;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Writes fixed-width records, e.g. bank files, to any {@link Appendable}.
+ * <p>
+ * Fields are formatted into a record buffer that is reused for every record
+ * and handed to the output once per record, so formatting a field does not
+ * allocate. A {@link Writer} output receives the record through a reused char
+ * array instead of a String copy. Text fields are padded with spaces on the right and truncated to
+ * their width, number fields are padded with zeros on the left.
+ * 
+ * <pre>
+ * try (FixedWidthWriter writer = FixedWidthWriter.open(path, StandardCharsets.US_ASCII)) {
+ *     writer.writeRecords(payments, (payment, record) -&gt; record.text(payment.getIban(), 34).number(payment.getAmountInCents(), 12));
+ * }
+ * </pre>
+ * 
+ * Instances are not thread safe.
+ * 
+ * @author Edward P. Legaspi | czetsuya@gmail.com
+ */
+public class FixedWidthWriter implements Closeable, Flushable {
+
+    private final Appendable out;
+    private final String lineSeparator;
+    private final StringBuilder record = new StringBuilder(256);
+    private char[] chars = new char[256];
+
+    /**
+     * Creates a writer that separates records with the system line separator.
+     * 
+     * @param out where records are written
+     */
+    public FixedWidthWriter(Appendable out) {
+        this(out, System.lineSeparator());
+    }
+
+    /**
+     * @param out           where records are written
+     * @param lineSeparator appended after each record
+     */
+    public FixedWidthWriter(Appendable out, String lineSeparator) {
+        this.out = out;
+        this.lineSeparator = lineSeparator;
+    }
+
+    /**
+     * Opens a buffered writer on a file, replacing its content.
+     * 
+     * @param path    the file to write
+     * @param charset the charset of the file
+     * @return a writer to close once all records are written
+     * @throws IOException if the file cannot be opened
+     */
+    public static FixedWidthWriter open(Path path, Charset charset) throws IOException {
+        return new FixedWidthWriter(Files.newBufferedWriter(path, charset));
+    }
+
+    /**
+     * Adds a text field to the current record. A null value is written as blanks.
+     * 
+     * @param value the value of the field
+     * @param width the width of the field
+     * @return this writer
+     */
+    public FixedWidthWriter text(CharSequence value, int width) {
+        if (value == null) {
+            return filler(' ', width);
+        }
+        if (value.length() > width) {
+            record.append(value, 0, width);
+            return this;
+        }
+        StringUtils.appendStringAsNChar(record, value, width);
+        return this;
+    }
+
+    /**
+     * Adds a number field to the current record.
+     * 
+     * @param value the value of the field
+     * @param width the width of the field, sign included
+     * @return this writer
+     * @throws IllegalArgumentException if the number does not fit in the field
+     * @see StringUtils#getLongAsNChar(long, int)
+     */
+    public FixedWidthWriter number(long value, int width) {
+        if (StringUtils.stringSize(value) > width) {
+            throw new IllegalArgumentException("The value " + value + " does not fit in " + width + " characters");
+        }
+        StringUtils.appendLongAsNChar(record, value, width);
+        return this;
+    }
+
+    /**
+     * Adds a field made of a repeated character to the current record.
+     * 
+     * @param c     the filler character
+     * @param width the width of the field
+     * @return this writer
+     */
+    public FixedWidthWriter filler(char c, int width) {
+        for (int i = 0; i < width; i++) {
+            record.append(c);
+        }
+        return this;
+    }
+
+    /**
+     * Writes the current record followed by the line separator and starts a new
+     * one.
+     * 
+     * @throws IOException if the output cannot be written
+     */
+    public void endRecord() throws IOException {
+        record.append(lineSeparator);
+        if (out instanceof Writer) {
+            // Writer.append would copy the record into a new String
+            int length = record.length();
+            if (chars.length < length) {
+                chars = new char[Math.max(length, chars.length * 2)];
+            }
+            record.getChars(0, length, chars, 0);
+            ((Writer) out).write(chars, 0, length);
+        } else {
+            out.append(record);
+        }
+        record.setLength(0);
+    }
+
+    /**
+     * Writes one record per element of a stream. The stream is consumed lazily so
+     * files of any size can be written with constant memory.
+     * 
+     * @param <T>       the type of the elements
+     * @param elements  the elements to write
+     * @param formatter adds the fields of an element to the record
+     * @throws IOException if the output cannot be written
+     */
+    public <T> void writeRecords(Stream<T> elements, BiConsumer<? super T, FixedWidthWriter> formatter) throws IOException {
+        Iterator<T> iterator = elements.iterator();
+        while (iterator.hasNext()) {
+            formatter.accept(iterator.next(), this);
+            endRecord();
+        }
+    }
+
+    /**
+     * Writes one record per element.
+     * 
+     * @see #writeRecords(Stream, BiConsumer)
+     */
+    public <T> void writeRecords(Iterable<T> elements, BiConsumer<? super T, FixedWidthWriter> formatter) throws IOException {
+        for (T element : elements) {
+            formatter.accept(element, this);
+            endRecord();
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (out instanceof Flushable) {
+            ((Flushable) out).flush();
+        }
+    }
+
+    /**
+     * Closes the output if it is closeable. A record that was not ended is
+     * discarded.
+     */
+    @Override
+    public void close() throws IOException {
+        record.setLength(0);
+        if (out instanceof Closeable) {
+            ((Closeable) out).close();
+        } else {
+            flush();
+        }
+    }
+}
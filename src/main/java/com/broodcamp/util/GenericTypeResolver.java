@@ -0,0 +1,305 @@
+/**
+ * Broodcamp Library
+ * Copyright (C) 2019 Edward P. Legaspi (https://github.com/czetsuya)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.broodcamp.util;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.common.reflect.TypeToken;
+
+/**
+ * Resolves generic types to classes through the whole type hierarchy of a
+ * class, superclasses and interfaces included. Given
+ * {@code class CustomerDao extends BaseDao<Customer, Long>}, the type
+ * arguments of BaseDao seen from CustomerDao are Customer and Long, and a
+ * field {@code List<E> entities} of BaseDao holds Customers.
+ * <p>
+ * The methods returning classes resolve type variables bound by the hierarchy
+ * to their argument, unbound ones to their first bound. Parameterized types
+ * resolve to their raw class, wildcards to their lower bound if any or else
+ * their upper bound, and generic arrays to an array class: a
+ * {@code Map<String, List<E>>} field has the arguments [String, List].
+ * <p>
+ * The methods returning types keep the nested type arguments instead, with the
+ * type variables bound by the hierarchy replaced by their argument: the same
+ * field has the arguments [String, List&lt;Customer&gt;], the second one being
+ * a {@link ParameterizedType}. Unbound type variables are left as they are.
+ * <p>
+ * Results are cached per class and member.
+ *
+ * @author Edward P. Legaspi | czetsuya@gmail.com
+ */
+public class GenericTypeResolver {
+
+    private static final Class<?>[] NO_CLASSES = new Class<?>[0];
+    private static final Type[] NO_TYPES = new Type[0];
+
+    /**
+     * Type variables of the supertypes of each class, bound to their argument.
+     */
+    private static final ClassValue<Map<TypeVariable<?>, Type>> typeVariables = new ClassValue<Map<TypeVariable<?>, Type>>() {
+
+        @Override
+        protected Map<TypeVariable<?>, Type> computeValue(Class<?> type) {
+            Map<TypeVariable<?>, Type> bindings = new HashMap<>();
+            collectBindings(type, bindings);
+            return Collections.unmodifiableMap(bindings);
+        }
+    };
+
+    /**
+     * Resolved type arguments of the supertypes of each class.
+     */
+    private static final ClassValue<Map<Class<?>, Class<?>[]>> supertypeArguments = new ClassValue<Map<Class<?>, Class<?>[]>>() {
+
+        @Override
+        protected Map<Class<?>, Class<?>[]> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    /**
+     * Resolved type arguments of the fields, by the class they are seen from.
+     */
+    private static final ClassValue<Map<Field, Class<?>[]>> fieldArguments = new ClassValue<Map<Field, Class<?>[]>>() {
+
+        @Override
+        protected Map<Field, Class<?>[]> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    /**
+     * Resolved type arguments of the supertypes of each class, as types.
+     */
+    private static final ClassValue<Map<Class<?>, Type[]>> supertypeArgumentTypes = new ClassValue<Map<Class<?>, Type[]>>() {
+
+        @Override
+        protected Map<Class<?>, Type[]> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    /**
+     * Resolved type arguments of the fields, by the class they are seen from, as
+     * types.
+     */
+    private static final ClassValue<Map<Field, Type[]>> fieldArgumentTypes = new ClassValue<Map<Field, Type[]>>() {
+
+        @Override
+        protected Map<Field, Type[]> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private GenericTypeResolver() {
+
+    }
+
+    /**
+     * Returns the type arguments of a generic supertype as seen from a class,
+     * e.g. [Customer, Long] for BaseDao from CustomerDao.
+     *
+     * @param type        the class, or a subclass, implementing the generic type
+     * @param genericType the generic class or interface
+     * @return the resolved type arguments, empty if the class does not extend the
+     *         generic type or extends its raw type
+     */
+    public static Class<?>[] getTypeArguments(Class<?> type, Class<?> genericType) {
+        Class<?>[] arguments = supertypeArguments.get(type).computeIfAbsent(genericType, k -> resolveTypeArguments(type, genericType));
+        return arguments.length == 0 ? arguments : arguments.clone();
+    }
+
+    /**
+     * Returns the type arguments of the declared type of a field, e.g. [String,
+     * Customer] for a Map&lt;String, E&gt; field seen from a class binding E to
+     * Customer.
+     *
+     * @param field the field
+     * @param type  the class the field is seen from, the declaring class or a
+     *              subclass of it
+     * @return the resolved type arguments, empty if the field type is not
+     *         parameterized
+     */
+    public static Class<?>[] getFieldTypeArguments(Field field, Class<?> type) {
+        Class<?>[] arguments = fieldArguments.get(type).computeIfAbsent(field, k -> {
+            Type genericType = field.getGenericType();
+            return genericType instanceof ParameterizedType ? resolveAll(((ParameterizedType) genericType).getActualTypeArguments(), type) : NO_CLASSES;
+        });
+        return arguments.length == 0 ? arguments : arguments.clone();
+    }
+
+    /**
+     * Resolves a type to a class in the context of a class.
+     *
+     * @param genericType the type to resolve, e.g. the generic type of a member
+     * @param type        the class binding the type variables
+     * @return the resolved class
+     */
+    public static Class<?> resolve(Type genericType, Class<?> type) {
+        return resolve(genericType, typeVariables.get(type), 0);
+    }
+
+    /**
+     * Returns the type arguments of a generic supertype as seen from a class, with
+     * their nested type arguments, e.g. [List&lt;Customer&gt;] for
+     * Repository&lt;List&lt;E&gt;&gt; from a class binding E to Customer.
+     *
+     * @param type        the class, or a subclass, implementing the generic type
+     * @param genericType the generic class or interface
+     * @return the resolved type arguments, empty if the class does not extend the
+     *         generic type or extends its raw type
+     */
+    public static Type[] getTypeArgumentTypes(Class<?> type, Class<?> genericType) {
+        Type[] arguments = supertypeArgumentTypes.get(type).computeIfAbsent(genericType, k -> {
+            if (getTypeArguments(type, genericType).length == 0) {
+                return NO_TYPES;
+            }
+            return resolveAllTypes(genericType.getTypeParameters(), type);
+        });
+        return arguments.length == 0 ? arguments : arguments.clone();
+    }
+
+    /**
+     * Returns the type arguments of the declared type of a field, with their
+     * nested type arguments, e.g. [String, List&lt;Customer&gt;] for a
+     * Map&lt;String, List&lt;E&gt;&gt; field seen from a class binding E to
+     * Customer.
+     *
+     * @param field the field
+     * @param type  the class the field is seen from, the declaring class or a
+     *              subclass of it
+     * @return the resolved type arguments, empty if the field type is not
+     *         parameterized
+     */
+    public static Type[] getFieldTypeArgumentTypes(Field field, Class<?> type) {
+        Type[] arguments = fieldArgumentTypes.get(type).computeIfAbsent(field, k -> {
+            Type genericType = field.getGenericType();
+            return genericType instanceof ParameterizedType ? resolveAllTypes(((ParameterizedType) genericType).getActualTypeArguments(), type) : NO_TYPES;
+        });
+        return arguments.length == 0 ? arguments : arguments.clone();
+    }
+
+    /**
+     * Resolves the type variables of a type in the context of a class, keeping
+     * its nested type arguments.
+     *
+     * @param genericType the type to resolve, e.g. the generic type of a member
+     * @param type        the class binding the type variables
+     * @return the resolved type, a {@link ParameterizedType} for a parameterized
+     *         type
+     */
+    public static Type resolveType(Type genericType, Class<?> type) {
+        return TypeToken.of(type).resolveType(genericType).getType();
+    }
+
+    private static Type[] resolveAllTypes(Type[] types, Class<?> type) {
+        TypeToken<?> context = TypeToken.of(type);
+        Type[] resolved = new Type[types.length];
+        for (int i = 0; i < types.length; i++) {
+            resolved[i] = context.resolveType(types[i]).getType();
+        }
+        return resolved;
+    }
+
+    private static Class<?>[] resolveTypeArguments(Class<?> type, Class<?> genericType) {
+        TypeVariable<?>[] parameters = genericType.getTypeParameters();
+        if (parameters.length == 0 || !genericType.isAssignableFrom(type)) {
+            return NO_CLASSES;
+        }
+
+        Map<TypeVariable<?>, Type> bindings = typeVariables.get(type);
+        if (type != genericType && !bindings.containsKey(parameters[0])) {
+            // extends the raw type
+            return NO_CLASSES;
+        }
+        return resolveAll(parameters, type);
+    }
+
+    private static Class<?>[] resolveAll(Type[] types, Class<?> type) {
+        Map<TypeVariable<?>, Type> bindings = typeVariables.get(type);
+        Class<?>[] classes = new Class<?>[types.length];
+        for (int i = 0; i < types.length; i++) {
+            classes[i] = resolve(types[i], bindings, 0);
+        }
+        return classes;
+    }
+
+    private static Class<?> resolve(Type type, Map<TypeVariable<?>, Type> bindings, int depth) {
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        }
+        if (type instanceof ParameterizedType) {
+            return (Class<?>) ((ParameterizedType) type).getRawType();
+        }
+        if (type instanceof GenericArrayType) {
+            Class<?> componentType = resolve(((GenericArrayType) type).getGenericComponentType(), bindings, depth);
+            return Array.newInstance(componentType, 0).getClass();
+        }
+        if (type instanceof WildcardType) {
+            WildcardType wildcard = (WildcardType) type;
+            Type[] lowerBounds = wildcard.getLowerBounds();
+            return resolve(lowerBounds.length > 0 ? lowerBounds[0] : wildcard.getUpperBounds()[0], bindings, depth);
+        }
+        if (type instanceof TypeVariable) {
+            // recursive bounds such as E extends Enum<E> stop at their raw class
+            Type bound = bindings.get(type);
+            if (bound == null || depth > 32) {
+                bound = ((TypeVariable<?>) type).getBounds()[0];
+            }
+            return resolve(bound, bindings, depth + 1);
+        }
+        return Object.class;
+    }
+
+    private static void collectBindings(Type type, Map<TypeVariable<?>, Type> bindings) {
+        Class<?> rawType;
+        if (type instanceof ParameterizedType) {
+            ParameterizedType parameterizedType = (ParameterizedType) type;
+            rawType = (Class<?>) parameterizedType.getRawType();
+            TypeVariable<?>[] parameters = rawType.getTypeParameters();
+            Type[] arguments = parameterizedType.getActualTypeArguments();
+            for (int i = 0; i < parameters.length; i++) {
+                // an argument naming a variable of the subtype takes its binding
+                Type argument = arguments[i];
+                Type bound = argument instanceof TypeVariable ? bindings.get(argument) : null;
+                bindings.putIfAbsent(parameters[i], bound != null ? bound : argument);
+            }
+        } else if (type instanceof Class) {
+            rawType = (Class<?>) type;
+        } else {
+            return;
+        }
+
+        if (rawType.getGenericSuperclass() != null) {
+            collectBindings(rawType.getGenericSuperclass(), bindings);
+        }
+        for (Type genericInterface : rawType.getGenericInterfaces()) {
+            collectBindings(genericInterface, bindings);
+        }
+    }
+}
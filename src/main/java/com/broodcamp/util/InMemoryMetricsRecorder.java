@@ -0,0 +1,257 @@
+/**
+ * Broodcamp Library
+ * Copyright (C) 2019 Edward P. Legaspi (https://github.com/czetsuya)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.broodcamp.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link MetricsRecorder} that aggregates measures in memory, per operation and
+ * per class. Latencies are kept in a histogram with one bucket per power of two
+ * nanoseconds, so recording never allocates once an operation and class pair
+ * has been seen.
+ *
+ * @author Edward P. Legaspi | czetsuya@gmail.com
+ */
+public class InMemoryMetricsRecorder implements MetricsRecorder {
+
+    private final Map<Key, Accumulator> operations = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder[]> caches = new ConcurrentHashMap<>();
+
+    @Override
+    public void record(String operation, Class<?> type, long durationNanos, long size) {
+        operations.computeIfAbsent(new Key(operation, type), k -> new Accumulator()).add(durationNanos, size);
+    }
+
+    @Override
+    public void recordCacheAccess(String cache, boolean hit) {
+        caches.computeIfAbsent(cache, k -> new LongAdder[] { new LongAdder(), new LongAdder() })[hit ? 0 : 1].increment();
+    }
+
+    /**
+     * @return a snapshot of the statistics of every operation and class pair,
+     *         most time consuming first
+     */
+    public List<OperationStats> getStats() {
+        List<OperationStats> stats = new ArrayList<>(operations.size());
+        operations.forEach((key, accumulator) -> stats.add(accumulator.snapshot(key)));
+        stats.sort(Comparator.comparingLong(OperationStats::getTotalNanos).reversed());
+        return stats;
+    }
+
+    /**
+     * @param operation name of the operation
+     * @return a snapshot of the statistics of an operation over all classes
+     */
+    public OperationStats getStats(String operation) {
+        Accumulator total = new Accumulator();
+        operations.forEach((key, accumulator) -> {
+            if (key.operation.equals(operation)) {
+                total.merge(accumulator);
+            }
+        });
+        return total.snapshot(new Key(operation, null));
+    }
+
+    /**
+     * @param cache name of the cache
+     * @return the ratio of lookups that found their value, NaN if the cache was
+     *         not used
+     */
+    public double getCacheHitRate(String cache) {
+        LongAdder[] counters = caches.get(cache);
+        if (counters == null) {
+            return Double.NaN;
+        }
+        long hits = counters[0].sum();
+        long total = hits + counters[1].sum();
+        return total == 0 ? Double.NaN : (double) hits / total;
+    }
+
+    /**
+     * Clears all statistics.
+     */
+    public void reset() {
+        operations.clear();
+        caches.clear();
+    }
+
+    private static final class Key {
+
+        private final String operation;
+        private final Class<?> type;
+
+        Key(String operation, Class<?> type) {
+            this.operation = operation;
+            this.type = type;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * operation.hashCode() + Objects.hashCode(type);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return operation.equals(other.operation) && type == other.type;
+        }
+    }
+
+    private static final class Accumulator {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAdder size = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder[] histogram = new LongAdder[64];
+
+        Accumulator() {
+            for (int i = 0; i < histogram.length; i++) {
+                histogram[i] = new LongAdder();
+            }
+        }
+
+        void add(long durationNanos, long processed) {
+            count.increment();
+            totalNanos.add(durationNanos);
+            size.add(processed);
+            maxNanos.accumulate(durationNanos);
+            histogram[bucket(durationNanos)].increment();
+        }
+
+        void merge(Accumulator other) {
+            count.add(other.count.sum());
+            totalNanos.add(other.totalNanos.sum());
+            size.add(other.size.sum());
+            maxNanos.accumulate(other.maxNanos.get());
+            for (int i = 0; i < histogram.length; i++) {
+                histogram[i].add(other.histogram[i].sum());
+            }
+        }
+
+        OperationStats snapshot(Key key) {
+            long[] buckets = new long[histogram.length];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = histogram[i].sum();
+            }
+            return new OperationStats(key.operation, key.type, count.sum(), totalNanos.sum(), maxNanos.get(), size.sum(), buckets);
+        }
+
+        /**
+         * Bucket i holds durations in [2^(i-1), 2^i) nanoseconds, bucket 0 holds 0.
+         */
+        private static int bucket(long durationNanos) {
+            return durationNanos <= 0 ? 0 : 64 - Long.numberOfLeadingZeros(durationNanos);
+        }
+    }
+
+    /**
+     * Statistics of an operation, for one class or all of them.
+     */
+    public static final class OperationStats {
+
+        private final String operation;
+        private final Class<?> type;
+        private final long count;
+        private final long totalNanos;
+        private final long maxNanos;
+        private final long size;
+        private final long[] histogram;
+
+        OperationStats(String operation, Class<?> type, long count, long totalNanos, long maxNanos, long size, long[] histogram) {
+            this.operation = operation;
+            this.type = type;
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+            this.size = size;
+            this.histogram = histogram;
+        }
+
+        public String getOperation() {
+            return operation;
+        }
+
+        /**
+         * @return the class the operation worked on, null for unrelated or merged
+         *         statistics
+         */
+        public Class<?> getType() {
+            return type;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        public double getMeanNanos() {
+            return count == 0 ? 0 : (double) totalNanos / count;
+        }
+
+        /**
+         * @return the number of bytes or characters processed
+         */
+        public long getSize() {
+            return size;
+        }
+
+        /**
+         * Estimates a percentile from the latency histogram. The result is the
+         * upper bound of the bucket holding the percentile, so it is accurate
+         * within a factor of two.
+         *
+         * @param percentile between 0 and 100
+         * @return the estimated latency in nanoseconds
+         */
+        public long getPercentileNanos(double percentile) {
+            long rank = (long) Math.ceil(count * percentile / 100);
+            long seen = 0;
+            for (int i = 0; i < histogram.length; i++) {
+                seen += histogram[i];
+                if (seen >= rank && seen > 0) {
+                    return Math.min(maxNanos, (1L << i) - 1);
+                }
+            }
+            return maxNanos;
+        }
+
+        @Override
+        public String toString() {
+            return operation + (type != null ? "[" + type.getName() + "]" : "") + " count=" + count + " mean=" + Math.round(getMeanNanos()) + "ns p50="
+                    + getPercentileNanos(50) + "ns p99=" + getPercentileNanos(99) + "ns max=" + maxNanos + "ns size=" + size;
+        }
+    }
+}
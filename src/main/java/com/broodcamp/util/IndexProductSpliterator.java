@@ -0,0 +1,50 @@
+/**
+ * Broodcamp Library
+ * Copyright (C) 2019 Edward P. Legaspi (https://github.com/czetsuya)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.broodcamp.util;
+
+/**
+ * Spliterator over the index tuples of a product of dimensions of the given
+ * sizes. Each element is a new int array.
+ *
+ * @author Edward P. Legaspi | czetsuya@gmail.com
+ */
+final class IndexProductSpliterator extends AbstractProductSpliterator<int[]> {
+
+    IndexProductSpliterator(int[] radices) {
+        this(radices, 0, MixedRadixCounter.size(radices));
+    }
+
+    private IndexProductSpliterator(int[] radices, long index, long fence) {
+        super(radices, index, fence);
+    }
+
+    @Override
+    protected AbstractProductSpliterator<int[]> split(long index, long fence) {
+        return new IndexProductSpliterator(radices, index, fence);
+    }
+
+    @Override
+    protected void onChange(MixedRadixCounter counter, int fromDimension) {
+        // elements are read from the counter
+    }
+
+    @Override
+    protected int[] current(MixedRadixCounter counter) {
+        return counter.copyTo(new int[radices.length]);
+    }
+}
@@ -1,17 +1,46 @@
 package com.broodcamp.util;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.Module;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 
 /**
  * Collection of utility methods for managing JSON.
+ * <p>
+ * The methods use {@link #OBJECT_MAPPER} unless the accelerated mode is
+ * enabled, with {@link #setAccelerated(boolean)} or the system property
+ * {@value #ACCELERATED_PROPERTY}. The accelerated mapper has the same
+ * configuration plus the Afterburner module, which speeds up deserialization by
+ * calling setters and constructors through generated bytecode instead of
+ * reflection. It does not speed up serialization: this mapper serializes
+ * private fields, which Afterburner cannot access, so both mappers build the
+ * same serializers and serialize at the same speed within the error margins of
+ * {@code JacksonUtilsBenchmark}. Afterburner is an optional dependency:
+ * without it, or where it cannot be loaded, the accelerated mode falls back to
+ * {@link #OBJECT_MAPPER}. Configure the mappers with
+ * {@link #configure(Consumer)}, which applies to both.
  * 
  * @author Edward P. Legaspi | czetsuya@gmail.com
  **/
@@ -26,47 +55,400 @@ public class JacksonUtils {
         OBJECT_MAPPER = om;
     }
 
+    /**
+     * Mapper of the default mode. The accelerated mapper is a copy of it made on
+     * first use: configuration added directly to this mapper afterwards does not
+     * reach the accelerated mapper, use {@link #configure(Consumer)} instead.
+     */
     public static final ObjectMapper OBJECT_MAPPER;
 
+    /**
+     * System property enabling the accelerated mode at startup when "true".
+     */
+    public static final String ACCELERATED_PROPERTY = "broodcamp.jackson.accelerated";
+
+    private static volatile ObjectMapper mapper = Boolean.getBoolean(ACCELERATED_PROPERTY) && AcceleratedMapper.INSTANCE != null ? AcceleratedMapper.INSTANCE
+            : OBJECT_MAPPER;
+
+    /**
+     * Names of the operations reported to {@link Metrics}, sizes are in
+     * characters of JSON.
+     */
+    public static final String FROM_STRING = "JacksonUtils.fromString";
+    public static final String TO_STRING = "JacksonUtils.toString";
+    public static final String TO_JSON_NODE = "JacksonUtils.toJsonNode";
+    public static final String CONVERT = "JacksonUtils.convert";
+    public static final String EXTRACT = "JacksonUtils.extract";
+
     private JacksonUtils() {
 
     }
 
+    /**
+     * Enables or disables the accelerated mode, which speeds up deserialization.
+     *
+     * @param accelerated whether to use the accelerated mapper
+     * @return whether the accelerated mapper is used, false when it is not
+     *         available
+     */
+    public static boolean setAccelerated(boolean accelerated) {
+        mapper = accelerated && AcceleratedMapper.INSTANCE != null ? AcceleratedMapper.INSTANCE : OBJECT_MAPPER;
+        return isAccelerated();
+    }
+
+    /**
+     * Configures the default and the accelerated mapper alike, e.g. to register a
+     * module or enable a feature. Like any mapper configuration, it should be
+     * done before the mappers are used.
+     *
+     * @param configuration applied to each mapper
+     */
+    public static synchronized void configure(Consumer<ObjectMapper> configuration) {
+        // copies OBJECT_MAPPER before the configuration if not done yet, so each mapper gets it once
+        ObjectMapper accelerated = AcceleratedMapper.INSTANCE;
+        configuration.accept(OBJECT_MAPPER);
+        if (accelerated != null) {
+            configuration.accept(accelerated);
+        }
+    }
+
+    public static boolean isAccelerated() {
+        return mapper != OBJECT_MAPPER;
+    }
+
+    /**
+     * @return the mapper used by the methods of this class
+     */
+    public static ObjectMapper getObjectMapper() {
+        return mapper;
+    }
+
     public static <T> T fromString(String string, Class<T> clazz) {
+        long start = Metrics.start();
         try {
-            return OBJECT_MAPPER.readValue(string, clazz);
+            return mapper.readValue(string, clazz);
         } catch (IOException e) {
             throw new IllegalArgumentException("The given string value: " + string + " cannot be transformed to Json object", e);
+        } finally {
+            if (start != Metrics.DISABLED) {
+                Metrics.record(FROM_STRING, clazz, start, string != null ? string.length() : 0);
+            }
         }
     }
 
     public static <T> T fromString(String string, TypeReference<T> typeReference) {
+        long start = Metrics.start();
         try {
-            return OBJECT_MAPPER.readValue(string, typeReference);
+            return mapper.readValue(string, typeReference);
         } catch (IOException e) {
             throw new IllegalArgumentException("The given string value: " + string + " cannot be transformed to Json object", e);
+        } finally {
+            if (start != Metrics.DISABLED) {
+                Metrics.record(FROM_STRING, mapper.getTypeFactory().constructType(typeReference).getRawClass(), start, string != null ? string.length() : 0);
+            }
         }
     }
 
     public static String toString(Object value) {
+        long start = Metrics.start();
+        String result = null;
         try {
-            return OBJECT_MAPPER.writeValueAsString(value);
+            result = mapper.writeValueAsString(value);
+            return result;
         } catch (JsonProcessingException e) {
             throw new IllegalArgumentException("The given Json object value: " + value + " cannot be transformed to a String", e);
+        } finally {
+            if (start != Metrics.DISABLED) {
+                Metrics.record(TO_STRING, value != null ? value.getClass() : null, start, result != null ? result.length() : 0);
+            }
         }
     }
 
     public static JsonNode toJsonNode(String value) {
+        long start = Metrics.start();
         try {
-            return OBJECT_MAPPER.readTree(value);
+            return mapper.readTree(value);
         } catch (IOException e) {
             throw new IllegalArgumentException(e);
+        } finally {
+            if (start != Metrics.DISABLED) {
+                Metrics.record(TO_JSON_NODE, null, start, value != null ? value.length() : 0);
+            }
+        }
+    }
+
+    /**
+     * @see #extract(String, Collection)
+     */
+    public static Map<String, JsonNode> extract(String json, String... pointers) {
+        return extract(json, Arrays.asList(pointers));
+    }
+
+    /**
+     * Extracts values from a JSON document by JSON Pointer, e.g. "/customer/name"
+     * or "/orders/0/code", without building the tree of the document. The tokens
+     * are read once: subtrees that no pointer goes through are skipped, and
+     * reading stops as soon as every pointer is found. Pointers that are not
+     * found are left out of the result; when a field name is repeated, the first
+     * occurrence is used.
+     *
+     * @param json     the JSON document
+     * @param pointers the JSON Pointers of the values to extract
+     * @return the value of each pointer found, in the order of the pointers
+     */
+    public static Map<String, JsonNode> extract(String json, Collection<String> pointers) {
+        long start = Metrics.start();
+        try (JsonParser parser = mapper.getFactory().createParser(json)) {
+            return extract(parser, pointers);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("The given string value: " + json + " cannot be read as Json", e);
+        } finally {
+            if (start != Metrics.DISABLED) {
+                Metrics.record(EXTRACT, null, start, json != null ? json.length() : 0);
+            }
+        }
+    }
+
+    /**
+     * Extracts values from a JSON stream by JSON Pointer. The stream is read up to
+     * the last value found and is not closed.
+     *
+     * @param json     the JSON document
+     * @param pointers the JSON Pointers of the values to extract
+     * @return the value of each pointer found, in the order of the pointers
+     * @throws IOException if the stream cannot be read or is not valid JSON
+     * @see #extract(String, Collection)
+     */
+    public static Map<String, JsonNode> extract(InputStream json, Collection<String> pointers) throws IOException {
+        long start = Metrics.start();
+        try (JsonParser parser = mapper.getFactory().createParser(json)) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            return extract(parser, pointers);
+        } finally {
+            if (start != Metrics.DISABLED) {
+                Metrics.record(EXTRACT, null, start, 0);
+            }
+        }
+    }
+
+    private static Map<String, JsonNode> extract(JsonParser parser, Collection<String> pointers) throws IOException {
+        PointerNode root = new PointerNode();
+        int count = 0;
+        for (String pointer : pointers) {
+            PointerNode node = root;
+            for (JsonPointer segment = JsonPointer.compile(pointer); !segment.matches(); segment = segment.tail()) {
+                node = node.children.computeIfAbsent(segment.getMatchingProperty(), k -> new PointerNode());
+            }
+            if (node.pointers.isEmpty()) {
+                count++;
+            }
+            node.pointers.add(pointer);
+        }
+
+        Map<String, JsonNode> found = new HashMap<>();
+        if (count > 0 && parser.nextToken() != null) {
+            extractValue(parser, root, found, new int[] { count });
+        }
+
+        Map<String, JsonNode> result = new LinkedHashMap<>();
+        for (String pointer : pointers) {
+            JsonNode value = found.get(pointer);
+            if (value != null) {
+                result.put(pointer, value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Reads the value at the current token of the parser.
+     *
+     * @return whether all the pointers are found
+     */
+    private static boolean extractValue(JsonParser parser, PointerNode node, Map<String, JsonNode> found, int[] remaining) throws IOException {
+        if (!node.pointers.isEmpty()) {
+            // pointers inside this value are read from its tree
+            JsonNode value = mapper.readTree(parser);
+            remaining[0] -= node.collect(value, found);
+            return remaining[0] == 0;
+        }
+
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                PointerNode child = node.children.get(parser.getCurrentName());
+                parser.nextToken();
+                if (child == null || child.done) {
+                    parser.skipChildren();
+                } else if (extractValue(parser, child, found, remaining)) {
+                    return true;
+                }
+            }
+
+        } else if (token == JsonToken.START_ARRAY) {
+            int index = 0;
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                PointerNode child = node.children.get(Integer.toString(index++));
+                if (child == null || child.done) {
+                    parser.skipChildren();
+                } else if (extractValue(parser, child, found, remaining)) {
+                    return true;
+                }
+            }
+        }
+        node.done = true;
+        return false;
+    }
+
+    /**
+     * Node of the trie of the pointers passed to {@link #extract(String, Collection)}.
+     */
+    private static final class PointerNode {
+
+        private final Map<String, PointerNode> children = new HashMap<>();
+        private final List<String> pointers = new ArrayList<>(1);
+        private boolean done;
+
+        /**
+         * Stores the values of the pointers of this node and of its children.
+         *
+         * @return the number of pointer nodes found
+         */
+        int collect(JsonNode value, Map<String, JsonNode> found) {
+            if (done || value == null || value.isMissingNode()) {
+                return 0;
+            }
+            done = true;
+
+            int count = 0;
+            if (!pointers.isEmpty()) {
+                for (String pointer : pointers) {
+                    found.put(pointer, value);
+                }
+                count++;
+            }
+            for (Map.Entry<String, PointerNode> child : children.entrySet()) {
+                count += child.getValue().collect(value.isArray() ? value.path(index(child.getKey())) : value.path(child.getKey()), found);
+            }
+            return count;
         }
+
+        private static int index(String segment) {
+            try {
+                return Integer.parseInt(segment);
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Converts a value to another type, e.g. a bean to a DTO or to a Map, as if it
+     * was serialized then deserialized but through a buffer of tokens instead of
+     * JSON text. A value whose class is exactly the target type is returned as
+     * is, without being copied: use {@link #clone(Object)} for a copy. Values of a
+     * subtype or supertype of the target type are converted.
+     *
+     * @param value the value to convert
+     * @param clazz the target type
+     * @return the converted value, null for null
+     */
+    public static <T> T convert(Object value, Class<T> clazz) {
+        if (value == null) {
+            return null;
+        }
+        if (value.getClass() == clazz) {
+            return clazz.cast(value);
+        }
+        return convert(value, mapper.constructType(clazz));
     }
 
+    /**
+     * Converts a value to a generic type, e.g. Map&lt;String, Object&gt;, through
+     * a buffer of tokens.
+     *
+     * @see #convert(Object, Class)
+     */
     @SuppressWarnings("unchecked")
+    public static <T> T convert(Object value, TypeReference<T> typeReference) {
+        if (value == null) {
+            return null;
+        }
+        JavaType type = mapper.getTypeFactory().constructType(typeReference);
+        if (!type.hasGenericTypes() && type.getRawClass() == value.getClass()) {
+            return (T) value;
+        }
+        return convert(value, type);
+    }
+
+    /**
+     * Converts each value of a list to another type, resolving the target type
+     * once.
+     *
+     * @param values the values to convert
+     * @param clazz  the target type
+     * @return the converted values, in the same order
+     * @see #convert(Object, Class)
+     */
+    public static <T> List<T> convertAll(List<?> values, Class<T> clazz) {
+        JavaType type = mapper.constructType(clazz);
+        List<T> result = new ArrayList<>(values.size());
+        for (Object value : values) {
+            if (value == null || value.getClass() == clazz) {
+                result.add(clazz.cast(value));
+            } else {
+                result.add(convert(value, type));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Deep copies a value through a buffer of tokens.
+     */
     public static <T> T clone(T value) {
-        return fromString(toString(value), (Class<T>) value.getClass());
+        return convert(value, mapper.constructType(value.getClass()));
+    }
+
+    private static <T> T convert(Object value, JavaType type) {
+        long start = Metrics.start();
+        ObjectMapper om = mapper;
+        TokenBuffer buffer = new TokenBuffer(om, false);
+        if (om.isEnabled(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)) {
+            buffer = buffer.forceUseOfBigDecimal(true);
+        }
+        try {
+            om.writeValue(buffer, value);
+            try (JsonParser parser = buffer.asParser()) {
+                return om.readValue(parser, type);
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("The given value: " + value + " cannot be converted to " + type, e);
+        } finally {
+            Metrics.record(CONVERT, value.getClass(), start, 0);
+        }
     }
 
+    /**
+     * Holds the accelerated mapper, created on first use, null when Afterburner
+     * is missing or cannot be loaded.
+     */
+    private static final class AcceleratedMapper {
+
+        private static final String AFTERBURNER_MODULE = "com.fasterxml.jackson.module.afterburner.AfterburnerModule";
+
+        private static final ObjectMapper INSTANCE = create();
+
+        private static ObjectMapper create() {
+            try {
+                // loaded by name so that this class links without the optional dependency
+                Module module = (Module) Class.forName(AFTERBURNER_MODULE, true, JacksonUtils.class.getClassLoader()).getDeclaredConstructor().newInstance();
+                ObjectMapper om = OBJECT_MAPPER.copy();
+                om.registerModule(module);
+                return om;
+            } catch (ReflectiveOperationException | LinkageError | SecurityException e) {
+                return null;
+            }
+        }
+    }
 }
@@ -0,0 +1,416 @@
+/**
+ * Broodcamp Library
+ * Copyright (C) 2019 Edward P. Legaspi (https://github.com/czetsuya)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.broodcamp.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.function.Consumer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/**
+ * Reads and writes JSON Lines (NDJSON) files: one JSON document per line.
+ * <p>
+ * Files are read in batches of whole lines, memory-mapped when they are on the
+ * default file system. Batches are deserialized in parallel while the records
+ * are passed to the consumer on the calling thread, in file order or as soon
+ * as their batch is ready. The number of batches held in memory at once is
+ * bounded, by default to a few per core of the common fork-join pool. Records
+ * are written with a {@link JsonLinesWriter}.
+ * <p>
+ * Records are mapped with {@link JacksonUtils#getObjectMapper()}.
+ *
+ * @author Edward P. Legaspi | czetsuya@gmail.com
+ */
+public class JsonLines {
+
+    /**
+     * Default size in bytes of the batches of lines deserialized by one task.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1024 * 1024;
+
+    /**
+     * Name of the reads reported to {@link Metrics}, by record class, with the
+     * number of bytes read as size.
+     */
+    public static final String READ = "JsonLines.read";
+
+    /**
+     * Size of the regions of a file mapped at once.
+     */
+    private static final int MAPPING_SIZE = 64 * 1024 * 1024;
+
+    private JsonLines() {
+
+    }
+
+    /**
+     * Reads all the records of a file, in file order.
+     *
+     * @param path  the file to read
+     * @param clazz the type of the records
+     * @return the records
+     * @throws IOException if the file cannot be read or a line is not valid JSON
+     */
+    public static <T> List<T> readAll(Path path, Class<T> clazz) throws IOException {
+        List<T> records = new ArrayList<>();
+        read(path, clazz, true, records::add);
+        return records;
+    }
+
+    /**
+     * Reads the records of a file on the common fork-join pool.
+     *
+     * @see #read(Path, Class, boolean, int, Executor, int, Consumer)
+     */
+    public static <T> void read(Path path, Class<T> clazz, boolean ordered, Consumer<? super T> consumer) throws IOException {
+        read(path, clazz, ordered, DEFAULT_BATCH_SIZE, ForkJoinPool.commonPool(), defaultMaxPendingBatches(), consumer);
+    }
+
+    /**
+     * Reads the records of a file. Blank lines are skipped. The consumer is called
+     * on the calling thread. If a line is invalid or the consumer throws, the
+     * batches not deserialized yet are cancelled.
+     *
+     * @param path              the file to read
+     * @param clazz             the type of the records
+     * @param ordered           whether the records are consumed in file order,
+     *                          otherwise batch by batch as they are deserialized
+     * @param batchSize         approximate size in bytes of the batches of lines
+     * @param executor          runs the deserialization of the batches
+     * @param maxPendingBatches maximum number of batches submitted to the
+     *                          executor and not consumed yet, e.g. twice its
+     *                          number of threads; at most about this number
+     *                          times batchSize bytes are held in memory
+     * @param consumer          receives the records
+     * @throws IOException if the file cannot be read or a line is not valid JSON
+     */
+    public static <T> void read(Path path, Class<T> clazz, boolean ordered, int batchSize, Executor executor, int maxPendingBatches, Consumer<? super T> consumer)
+            throws IOException {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        if (maxPendingBatches <= 0) {
+            throw new IllegalArgumentException("Maximum number of pending batches must be positive: " + maxPendingBatches);
+        }
+
+        long start = Metrics.start();
+        long size = 0;
+        ObjectReader reader = JacksonUtils.getObjectMapper().readerFor(clazz);
+
+        // batches submitted and not consumed yet, cancelled if reading fails
+        Deque<Future<List<T>>> pending = new ArrayDeque<>();
+        try (BatchSource source = open(path, batchSize)) {
+            if (ordered) {
+                while (true) {
+                    Batch batch = null;
+                    while (pending.size() < maxPendingBatches && (batch = source.next()) != null) {
+                        FutureTask<List<T>> task = new FutureTask<>(parseTask(reader, path, batch));
+                        pending.add(task);
+                        executor.execute(task);
+                        size += batch.data.length;
+                    }
+                    if (pending.isEmpty()) {
+                        break;
+                    }
+                    await(pending.poll()).forEach(consumer);
+                }
+
+            } else {
+                CompletionService<List<T>> completionService = new ExecutorCompletionService<>(executor);
+                while (true) {
+                    Batch batch = null;
+                    while (pending.size() < maxPendingBatches && (batch = source.next()) != null) {
+                        pending.add(completionService.submit(parseTask(reader, path, batch)));
+                        size += batch.data.length;
+                    }
+                    if (pending.isEmpty()) {
+                        break;
+                    }
+                    Future<List<T>> done;
+                    try {
+                        done = completionService.take();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("Interrupted while reading " + path);
+                    }
+                    pending.remove(done);
+                    await(done).forEach(consumer);
+                }
+            }
+
+        } finally {
+            for (Future<List<T>> future : pending) {
+                future.cancel(false);
+            }
+            Metrics.record(READ, clazz, start, size);
+        }
+    }
+
+    /**
+     * Default maximum number of pending batches, for the common fork-join pool.
+     */
+    static int defaultMaxPendingBatches() {
+        return 2 * ForkJoinPool.getCommonPoolParallelism() + 1;
+    }
+
+    private static <T> Callable<List<T>> parseTask(ObjectReader reader, Path path, Batch batch) {
+        return () -> {
+            try {
+                return parse(reader, path, batch);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    private static <T> List<T> parse(ObjectReader reader, Path path, Batch batch) throws IOException {
+        byte[] data = batch.data;
+        List<T> records = new ArrayList<>();
+        int start = 0;
+        while (start < data.length) {
+            int end = start;
+            while (end < data.length && data[end] != '\n') {
+                end++;
+            }
+            int next = end + 1;
+
+            while (start < end && isWhitespace(data[start])) {
+                start++;
+            }
+            while (end > start && isWhitespace(data[end - 1])) {
+                end--;
+            }
+            if (start < end) {
+                try {
+                    records.add(reader.readValue(data, start, end - start));
+                } catch (JsonProcessingException e) {
+                    throw new IOException("Invalid JSON record at byte " + (batch.offset + start) + " of " + path, e);
+                }
+            }
+            start = next;
+        }
+        return records;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+    }
+
+    private static <T> T await(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a batch");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private static BatchSource open(Path path, int batchSize) throws IOException {
+        if (path.getFileSystem() == FileSystems.getDefault() && Files.isRegularFile(path)) {
+            return new MappedBatchSource(FileChannel.open(path, StandardOpenOption.READ), batchSize);
+        }
+        return new StreamBatchSource(Files.newInputStream(path), batchSize);
+    }
+
+    /**
+     * Whole lines of a file and their position in it.
+     */
+    private static final class Batch {
+
+        private final byte[] data;
+        private final long offset;
+
+        Batch(byte[] data, long offset) {
+            this.data = data;
+            this.offset = offset;
+        }
+    }
+
+    private interface BatchSource extends Closeable {
+
+        /**
+         * @return the next batch of lines, null at the end of the file
+         */
+        Batch next() throws IOException;
+    }
+
+    /**
+     * Cuts batches from regions of a memory-mapped file.
+     */
+    private static final class MappedBatchSource implements BatchSource {
+
+        private final FileChannel channel;
+        private final long size;
+        private final int batchSize;
+        private long position;
+        private MappedByteBuffer region;
+        private long regionStart;
+        private int regionSize = MAPPING_SIZE;
+
+        MappedBatchSource(FileChannel channel, int batchSize) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+            this.batchSize = batchSize;
+        }
+
+        @Override
+        public Batch next() throws IOException {
+            if (position >= size) {
+                return null;
+            }
+
+            while (true) {
+                if (region == null || position < regionStart || position >= regionStart + region.capacity()) {
+                    map(position);
+                }
+                int from = (int) (position - regionStart);
+                int limit = region.capacity();
+                boolean lastRegion = regionStart + limit == size;
+
+                // end the batch after the first newline past the batch size
+                int end = (int) Math.min((long) from + batchSize, limit) - 1;
+                while (end < limit && region.get(end) != '\n') {
+                    end++;
+                }
+                if (end < limit || lastRegion) {
+                    int cut = Math.min(end + 1, limit);
+                    byte[] data = new byte[cut - from];
+                    ByteBuffer view = region.duplicate();
+                    view.position(from);
+                    view.get(data);
+                    Batch batch = new Batch(data, position);
+                    position += data.length;
+                    return batch;
+                }
+
+                // the line goes past the region: map from its start, larger if it is the whole region
+                if (from == 0) {
+                    if (regionSize > Integer.MAX_VALUE / 2) {
+                        throw new IOException("Line too long at byte " + position);
+                    }
+                    regionSize *= 2;
+                }
+                map(position);
+            }
+        }
+
+        private void map(long start) throws IOException {
+            regionStart = start;
+            region = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(size - start, regionSize));
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /**
+     * Cuts batches from a stream, for files that cannot be mapped.
+     */
+    private static final class StreamBatchSource implements BatchSource {
+
+        private final InputStream in;
+        private byte[] buffer;
+        private int filled;
+        private long offset;
+        private boolean eof;
+
+        StreamBatchSource(InputStream in, int batchSize) {
+            this.in = in;
+            this.buffer = new byte[batchSize];
+        }
+
+        @Override
+        public Batch next() throws IOException {
+            while (true) {
+                while (!eof && filled < buffer.length) {
+                    int read = in.read(buffer, filled, buffer.length - filled);
+                    if (read < 0) {
+                        eof = true;
+                    } else {
+                        filled += read;
+                    }
+                }
+                if (filled == 0) {
+                    return null;
+                }
+
+                int cut = filled;
+                if (!eof) {
+                    while (cut > 0 && buffer[cut - 1] != '\n') {
+                        cut--;
+                    }
+                    if (cut == 0) {
+                        // no complete line yet
+                        buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                        continue;
+                    }
+                }
+
+                Batch batch = new Batch(Arrays.copyOf(buffer, cut), offset);
+                System.arraycopy(buffer, cut, buffer, 0, filled - cut);
+                filled -= cut;
+                offset += cut;
+                return batch;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,376 @@
+/**
+ * Broodcamp Library
+ * Copyright (C) 2019 Edward P. Legaspi (https://github.com/czetsuya)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.broodcamp.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+/**
+ * Writes records to a JSON Lines (NDJSON) file. Records are grouped in batches
+ * that are serialized to JSON text in parallel, then written in order through a
+ * single file channel by the thread calling the writer. When too many batches
+ * are pending, writing a record waits for the oldest one, which bounds the
+ * memory used.
+ * <p>
+ * By default each record is converted to tokens when it is written, on the
+ * calling thread, so it can be modified or reused afterwards; only the encoding
+ * of the tokens to text runs in parallel. Records that are not modified once
+ * written, e.g. a new object per line, can be kept by reference instead, see
+ * {@link #JsonLinesWriter(Path, int, Executor, int, boolean)}: their whole
+ * serialization then runs in parallel.
+ * <p>
+ * Once a batch fails, the file is incomplete: the writer rejects further
+ * records, and flushing or closing it throws instead of writing the records
+ * still buffered.
+ * <p>
+ * The writer is a {@link Consumer}, e.g. for {@code records.forEach(writer)},
+ * and is not thread-safe. Records are mapped with
+ * {@link JacksonUtils#getObjectMapper()}.
+ *
+ * @author Edward P. Legaspi | czetsuya@gmail.com
+ */
+public class JsonLinesWriter implements Consumer<Object>, Closeable, Flushable {
+
+    /**
+     * Default number of records serialized by one task.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    /**
+     * Name of the batch writes reported to {@link Metrics}, with the number of
+     * bytes written as size.
+     */
+    public static final String WRITE = "JsonLinesWriter.write";
+
+    private static final SerializedString LINE_SEPARATOR = new SerializedString("\n");
+
+    private final Path path;
+    private final FileChannel channel;
+    private final ObjectMapper mapper;
+    private final ObjectWriter writer;
+    private final ObjectWriter recordWriter;
+    private final Executor executor;
+    private final int batchSize;
+    private final int maxPendingBatches;
+    private final boolean keepRecords;
+    private final Deque<Future<Buffer>> pending = new ArrayDeque<>();
+    private TokenBuffer batch;
+    private List<Object> records;
+    private int batchCount;
+    private Throwable failure;
+
+    /**
+     * Creates or truncates a file and writes to it on the common fork-join pool.
+     *
+     * @param path the file to write
+     * @throws IOException if the file cannot be opened
+     */
+    public JsonLinesWriter(Path path) throws IOException {
+        this(path, DEFAULT_BATCH_SIZE, ForkJoinPool.commonPool(), JsonLines.defaultMaxPendingBatches());
+    }
+
+    /**
+     * Creates or truncates a file.
+     *
+     * @param path              the file to write
+     * @param batchSize         number of records per batch
+     * @param executor          runs the encoding of the batches
+     * @param maxPendingBatches maximum number of batches submitted to the
+     *                          executor and not written yet, e.g. twice its
+     *                          number of threads
+     * @throws IOException if the file cannot be opened
+     */
+    public JsonLinesWriter(Path path, int batchSize, Executor executor, int maxPendingBatches) throws IOException {
+        this(path, batchSize, executor, maxPendingBatches, false);
+    }
+
+    /**
+     * Creates or truncates a file.
+     *
+     * @param path              the file to write
+     * @param batchSize         number of records per batch
+     * @param executor          runs the serialization of the batches
+     * @param maxPendingBatches maximum number of batches submitted to the
+     *                          executor and not written yet, e.g. twice its
+     *                          number of threads
+     * @param keepRecords       whether the records are kept by reference and
+     *                          serialized on the executor; the records must
+     *                          then not be modified until they are written, i.e.
+     *                          until {@link #flush()} or {@link #close()}
+     * @throws IOException if the file cannot be opened
+     */
+    public JsonLinesWriter(Path path, int batchSize, Executor executor, int maxPendingBatches, boolean keepRecords) throws IOException {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        if (maxPendingBatches <= 0) {
+            throw new IllegalArgumentException("Maximum number of pending batches must be positive: " + maxPendingBatches);
+        }
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        this.mapper = JacksonUtils.getObjectMapper();
+        this.writer = mapper.writer();
+        // the generator of a batch is flushed once, when it is closed
+        this.recordWriter = writer.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.executor = executor;
+        this.batchSize = batchSize;
+        this.maxPendingBatches = maxPendingBatches;
+        this.keepRecords = keepRecords;
+    }
+
+    /**
+     * Writes all the records of a stream to a file.
+     *
+     * @param path    the file to write
+     * @param records the records
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path path, Stream<?> records) throws IOException {
+        try (JsonLinesWriter writer = new JsonLinesWriter(path)) {
+            records.forEachOrdered(writer);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Adds a record to the current batch, writing the oldest pending batch if
+     * there are too many.
+     *
+     * @param record the record, serialized on one line
+     * @throws IOException if the record cannot be serialized, a batch cannot be
+     *                     serialized or written, or a previous batch failed
+     */
+    public void write(Object record) throws IOException {
+        checkNotFailed();
+        try {
+            if (keepRecords) {
+                if (records == null) {
+                    records = new ArrayList<>(batchSize);
+                }
+                records.add(record);
+            } else {
+                if (batch == null) {
+                    batch = new TokenBuffer(mapper, false);
+                }
+                writer.writeValue(batch, record);
+            }
+            if (++batchCount >= batchSize) {
+                submit();
+                while (pending.size() > maxPendingBatches) {
+                    writeOldest();
+                }
+            }
+        } catch (IOException | RuntimeException | Error e) {
+            fail(e);
+            throw e;
+        }
+    }
+
+    /**
+     * @throws UncheckedIOException if a batch cannot be serialized or written
+     */
+    @Override
+    public void accept(Object record) {
+        try {
+            write(record);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Serializes and writes all the records added so far.
+     *
+     * @throws IOException if a batch cannot be serialized or written, or a
+     *                     previous batch failed
+     */
+    @Override
+    public void flush() throws IOException {
+        checkNotFailed();
+        try {
+            submit();
+            while (!pending.isEmpty()) {
+                writeOldest();
+            }
+        } catch (IOException | RuntimeException | Error e) {
+            fail(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Writes the remaining records and closes the file. After a failed batch the
+     * remaining records are not written and the file is closed incomplete.
+     *
+     * @throws IOException if a batch cannot be serialized or written, or a
+     *                     previous batch failed
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void submit() {
+        if (batchCount == 0) {
+            return;
+        }
+        FutureTask<Buffer> task;
+        if (keepRecords) {
+            List<Object> batchRecords = records;
+            task = new FutureTask<>(() -> serialize(batchRecords));
+        } else {
+            TokenBuffer tokens = batch;
+            task = new FutureTask<>(() -> encode(tokens));
+        }
+        batch = null;
+        records = null;
+        batchCount = 0;
+
+        executor.execute(task);
+        pending.add(task);
+    }
+
+    private Buffer encode(TokenBuffer tokens) throws IOException {
+        Buffer buffer = new Buffer();
+        try (JsonGenerator generator = writer.createGenerator(buffer)) {
+            // the generator separates the records with the root value separator
+            generator.setRootValueSeparator(LINE_SEPARATOR);
+            tokens.serialize(generator);
+        }
+        buffer.write('\n');
+        return buffer;
+    }
+
+    private Buffer serialize(List<Object> batchRecords) throws IOException {
+        Buffer buffer = new Buffer();
+        try (JsonGenerator generator = writer.createGenerator(buffer)) {
+            generator.setRootValueSeparator(LINE_SEPARATOR);
+            for (Object record : batchRecords) {
+                recordWriter.writeValue(generator, record);
+            }
+        }
+        buffer.write('\n');
+        return buffer;
+    }
+
+    private void writeOldest() throws IOException {
+        writeBuffer(await(pending.poll()));
+    }
+
+    /**
+     * Records the failure that left the file incomplete and stops serializing the
+     * remaining batches.
+     */
+    private void fail(Throwable e) {
+        if (failure == null) {
+            failure = e;
+        }
+        for (Future<Buffer> future : pending) {
+            future.cancel(false);
+        }
+        pending.clear();
+        batch = null;
+        records = null;
+        batchCount = 0;
+    }
+
+    private void checkNotFailed() throws IOException {
+        if (failure != null) {
+            throw new IOException("A batch of " + path + " failed, the file is incomplete", failure);
+        }
+    }
+
+    private static Buffer await(Future<Buffer> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a batch");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private void writeBuffer(Buffer buffer) throws IOException {
+        long start = Metrics.start();
+        ByteBuffer bytes = buffer.asByteBuffer();
+        int size = bytes.remaining();
+        try {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        } finally {
+            Metrics.record(WRITE, null, start, size);
+        }
+    }
+
+    /**
+     * Exposes its array to write it without copying.
+     */
+    private static final class Buffer extends ByteArrayOutputStream {
+
+        Buffer() {
+            super(64 * 1024);
+        }
+
+        ByteBuffer asByteBuffer() {
+            return ByteBuffer.wrap(buf, 0, count);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+/**
+ * Broodcamp Library
+ * Copyright (C) 2019 Edward P. Legaspi (https://github.com/czetsuya)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.broodcamp.util;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Method metadata of a class, computed once per class: its public and declared
+ * methods by signature, its public methods by annotation and the interface
+ * methods found for its methods. Queries never throw.
+ *
+ * @author Edward P. Legaspi | czetsuya@gmail.com
+ */
+final class MethodIndex {
+
+    private static final ClassValue<MethodIndex> indexes = new ClassValue<MethodIndex>() {
+
+        @Override
+        protected MethodIndex computeValue(Class<?> type) {
+            return new MethodIndex(type);
+        }
+    };
+
+    private final Class<?> type;
+    private final Method[] methods;
+    private final Map<Signature, Method> publicMethods;
+    private final Map<Signature, Method> declaredMethods;
+    private final Map<Class<? extends Annotation>, List<Method>> annotatedMethods = new ConcurrentHashMap<>();
+    private final Map<List<Object>, Optional<Method>> interfaceMethods = new ConcurrentHashMap<>();
+
+    private MethodIndex(Class<?> type) {
+        this.type = type;
+        this.methods = type.getMethods();
+        this.publicMethods = bySignature(methods);
+        this.declaredMethods = bySignature(type.getDeclaredMethods());
+    }
+
+    static MethodIndex of(Class<?> type) {
+        return indexes.get(type);
+    }
+
+    /**
+     * Indexes methods by signature. Of the methods sharing a signature, e.g. a
+     * covariant override and its bridge, keeps the one with the most specific
+     * return type like {@link Class#getMethod(String, Class...)} does.
+     */
+    private static Map<Signature, Method> bySignature(Method[] methods) {
+        Map<Signature, Method> result = new HashMap<>(methods.length * 2);
+        for (Method method : methods) {
+            result.merge(new Signature(method.getName(), method.getParameterTypes()), method,
+                    (previous, current) -> previous.getReturnType().isAssignableFrom(current.getReturnType()) ? current : previous);
+        }
+        return result;
+    }
+
+    /**
+     * @return the public method with a signature, like
+     *         {@link Class#getMethod(String, Class...)}, or null
+     */
+    Method getPublicMethod(String name, Class<?>... parameterTypes) {
+        return publicMethods.get(new Signature(name, parameterTypes));
+    }
+
+    /**
+     * @return the declared method with a signature, like
+     *         {@link Class#getDeclaredMethod(String, Class...)}, or null
+     */
+    Method getDeclaredMethod(String name, Class<?>... parameterTypes) {
+        return declaredMethods.get(new Signature(name, parameterTypes));
+    }
+
+    /**
+     * @return the public methods annotated with an annotation
+     */
+    List<Method> getAnnotatedMethods(Class<? extends Annotation> annotationClass) {
+        return annotatedMethods.computeIfAbsent(annotationClass, k -> {
+            List<Method> result = new ArrayList<>();
+            for (Method method : methods) {
+                if (method.isAnnotationPresent(annotationClass)) {
+                    result.add(method);
+                }
+            }
+            return Collections.unmodifiableList(result);
+        });
+    }
+
+    /**
+     * Returns whether a method of this class overrides or implements a public
+     * method of its superclass or of one of its interfaces.
+     */
+    boolean isOverriding(Method method) {
+        if (type == Object.class) {
+            return false;
+        }
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        if (type.getSuperclass() != null && of(type.getSuperclass()).getPublicMethod(method.getName(), parameterTypes) != null) {
+            return true;
+        }
+        for (Class<?> iface : type.getInterfaces()) {
+            if (of(iface).getPublicMethod(method.getName(), parameterTypes) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds a method with a signature declared by a public interface annotated
+     * with an annotation, searching the interfaces of this class and of its
+     * superclasses, and the superinterfaces of the annotated interfaces.
+     *
+     * @return the interface method, or null
+     */
+    Method getInterfaceMethod(Class<? extends Annotation> annotationClass, String methodName, Class<?>... parameterTypes) {
+        return interfaceMethods.computeIfAbsent(Arrays.asList(annotationClass, new Signature(methodName, parameterTypes)),
+                k -> Optional.ofNullable(findInterfaceMethod(type, annotationClass, methodName, parameterTypes))).orElse(null);
+    }
+
+    private static Method findInterfaceMethod(Class<?> cls, Class<? extends Annotation> annotationClass, String methodName, Class<?>... parameterTypes) {
+        while (cls != null) {
+            for (Class<?> iface : cls.getInterfaces()) {
+                if (iface.isAnnotationPresent(annotationClass) && Modifier.isPublic(iface.getModifiers())) {
+                    Method method = of(iface).getDeclaredMethod(methodName, parameterTypes);
+                    if (method == null) {
+                        method = findInterfaceMethod(iface, annotationClass, methodName, parameterTypes);
+                    }
+                    if (method != null) {
+                        return method;
+                    }
+                }
+            }
+            cls = cls.getSuperclass();
+        }
+        return null;
+    }
+
+    /**
+     * Name and parameter types of a method.
+     */
+    private static final class Signature {
+
+        private final String name;
+        private final Class<?>[] parameterTypes;
+        private final int hash;
+
+        Signature(String name, Class<?>[] parameterTypes) {
+            this.name = name;
+            this.parameterTypes = parameterTypes != null ? parameterTypes : new Class<?>[0];
+            this.hash = 31 * name.hashCode() + Arrays.hashCode(this.parameterTypes);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Signature)) {
+                return false;
+            }
+            Signature other = (Signature) obj;
+            return name.equals(other.name) && Arrays.equals(parameterTypes, other.parameterTypes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
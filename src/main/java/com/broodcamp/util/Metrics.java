@@ -0,0 +1,120 @@
+/**
+ * Broodcamp Library
+ * Copyright (C) 2019 Edward P. Legaspi (https://github.com/czetsuya)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.broodcamp.util;
+
+/**
+ * Entry point of the instrumentation of this library. Instrumentation is
+ * disabled until a {@link MetricsRecorder} is installed, and then costs a single
+ * volatile read per operation:
+ *
+ * <pre>
+ * InMemoryMetricsRecorder recorder = new InMemoryMetricsRecorder();
+ * Metrics.setRecorder(recorder);
+ * ...
+ * recorder.getStats().forEach(System.out::println);
+ * </pre>
+ *
+ * Instrumented code follows this pattern:
+ *
+ * <pre>
+ * long start = Metrics.start();
+ * try {
+ *     ...
+ * } finally {
+ *     Metrics.record("XmlUtils.validate", null, start, xml.length());
+ * }
+ * </pre>
+ *
+ * @author Edward P. Legaspi | czetsuya@gmail.com
+ */
+public class Metrics {
+
+    /**
+     * Value returned by {@link #start()} when instrumentation is disabled.
+     */
+    public static final long DISABLED = Long.MIN_VALUE;
+
+    private static volatile MetricsRecorder recorder;
+
+    private Metrics() {
+
+    }
+
+    /**
+     * Installs the recorder that receives the measures, or disables
+     * instrumentation.
+     *
+     * @param recorder the recorder, null to disable instrumentation
+     */
+    public static void setRecorder(MetricsRecorder recorder) {
+        Metrics.recorder = recorder;
+    }
+
+    /**
+     * @return the installed recorder, null if instrumentation is disabled
+     */
+    public static MetricsRecorder getRecorder() {
+        return recorder;
+    }
+
+    public static boolean isEnabled() {
+        return recorder != null;
+    }
+
+    /**
+     * Starts measuring an operation.
+     *
+     * @return the start time to pass to
+     *         {@link #record(String, Class, long, long)}, {@link #DISABLED} if
+     *         instrumentation is disabled
+     */
+    public static long start() {
+        return recorder != null ? System.nanoTime() : DISABLED;
+    }
+
+    /**
+     * Records an operation started with {@link #start()}. Does nothing if
+     * instrumentation was disabled when the operation started or since then.
+     *
+     * @param operation name of the operation
+     * @param type      the class the operation worked on, null if not applicable
+     * @param start     the value returned by {@link #start()}
+     * @param size      number of bytes or characters processed, 0 if not
+     *                  applicable
+     */
+    public static void record(String operation, Class<?> type, long start, long size) {
+        MetricsRecorder current = recorder;
+        if (start == DISABLED || current == null) {
+            return;
+        }
+        current.record(operation, type, System.nanoTime() - start, size);
+    }
+
+    /**
+     * Records a cache lookup.
+     *
+     * @param cache name of the cache
+     * @param hit   true if the value was found in the cache
+     */
+    public static void recordCacheAccess(String cache, boolean hit) {
+        MetricsRecorder current = recorder;
+        if (current != null) {
+            current.recordCacheAccess(cache, hit);
+        }
+    }
+}
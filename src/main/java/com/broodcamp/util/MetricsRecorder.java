@@ -0,0 +1,48 @@
+/**
+ * Broodcamp Library
+ * Copyright (C) 2019 Edward P. Legaspi (https://github.com/czetsuya)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.broodcamp.util;
+
+/**
+ * Receives the measures of the instrumented operations of this library, see
+ * {@link Metrics}. Implementations are called concurrently from the threads
+ * running the operations and must be thread safe and fast.
+ *
+ * @author Edward P. Legaspi | czetsuya@gmail.com
+ */
+public interface MetricsRecorder {
+
+    /**
+     * Records one call of an operation.
+     *
+     * @param operation     name of the operation, e.g. "JacksonUtils.toString"
+     * @param type          the class the operation worked on, null if not
+     *                      applicable
+     * @param durationNanos duration of the call
+     * @param size          number of bytes or characters processed, 0 if not
+     *                      applicable
+     */
+    void record(String operation, Class<?> type, long durationNanos, long size);
+
+    /**
+     * Records a lookup in one of the caches of this library.
+     *
+     * @param cache name of the cache
+     * @param hit   true if the value was found in the cache
+     */
+    void recordCacheAccess(String cache, boolean hit);
+}
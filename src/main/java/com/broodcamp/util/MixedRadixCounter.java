@@ -0,0 +1,177 @@
+/**
+ * Broodcamp Library
+ * Copyright (C) 2019 Edward P. Legaspi (https://github.com/czetsuya)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.broodcamp.util;
+
+import java.util.Arrays;
+
+/**
+ * Counter whose digits are the indexes of a tuple in the cartesian product of
+ * dimensions of the given sizes. The last dimension varies fastest, so
+ * counting from 0 to {@link #size()} - 1 visits the tuples in the same order as
+ * {@link CollectionUtils#cartersianProduct(java.util.Collection)}.
+ * <p>
+ * Reading and incrementing the counter does not allocate, which makes it the
+ * building block of the product iterators of {@link CollectionUtils}:
+ *
+ * <pre>
+ * MixedRadixCounter counter = new MixedRadixCounter(colors.length, sizes.length);
+ * do {
+ *     process(colors[counter.digit(0)], sizes[counter.digit(1)]);
+ * } while (counter.increment() &gt;= 0);
+ * </pre>
+ *
+ * Instances are not thread safe.
+ *
+ * @author Edward P. Legaspi | czetsuya@gmail.com
+ */
+public final class MixedRadixCounter {
+
+    private final int[] radices;
+    private final int[] digits;
+    private final long size;
+    private long index;
+
+    /**
+     * Creates a counter positioned on the first tuple. When a dimension is empty
+     * the product has no tuple and the counter must not be read.
+     *
+     * @param radices the size of each dimension
+     * @throws IllegalArgumentException if a size is negative or the product has
+     *                                  more than {@link Long#MAX_VALUE} tuples
+     */
+    public MixedRadixCounter(int... radices) {
+        this.radices = radices.clone();
+        this.digits = new int[radices.length];
+        this.size = size(radices);
+    }
+
+    /**
+     * Computes the number of tuples of the product of dimensions.
+     *
+     * @param radices the size of each dimension
+     * @return the number of tuples
+     * @throws IllegalArgumentException if a size is negative or the product has
+     *                                  more than {@link Long#MAX_VALUE} tuples
+     */
+    public static long size(int... radices) {
+        long size = 1;
+        for (int radix : radices) {
+            if (radix < 0) {
+                throw new IllegalArgumentException("Dimension sizes cannot be negative: " + Arrays.toString(radices));
+            }
+            try {
+                size = Math.multiplyExact(size, radix);
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("The cartesian product has more than " + Long.MAX_VALUE + " elements", e);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return the number of dimensions
+     */
+    public int dimensions() {
+        return radices.length;
+    }
+
+    /**
+     * @param dimension a dimension
+     * @return the size of the dimension
+     */
+    public int radix(int dimension) {
+        return radices[dimension];
+    }
+
+    /**
+     * @return the number of tuples of the product
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * @return the position of the current tuple in the product
+     */
+    public long index() {
+        return index;
+    }
+
+    /**
+     * @param dimension a dimension
+     * @return the index of the current tuple in the dimension
+     */
+    public int digit(int dimension) {
+        return digits[dimension];
+    }
+
+    /**
+     * Copies the current tuple into an array.
+     *
+     * @param target array of at least {@link #dimensions()} elements
+     * @return target
+     */
+    public int[] copyTo(int[] target) {
+        System.arraycopy(digits, 0, target, 0, digits.length);
+        return target;
+    }
+
+    /**
+     * Positions the counter on a tuple.
+     *
+     * @param index the position of the tuple in the product
+     * @throws IndexOutOfBoundsException if index is not between 0 and size - 1
+     */
+    public void seek(long index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " is out of the product of size " + size);
+        }
+
+        this.index = index;
+        for (int d = radices.length - 1; d >= 0; d--) {
+            digits[d] = (int) (index % radices[d]);
+            index /= radices[d];
+        }
+    }
+
+    /**
+     * Moves to the next tuple.
+     *
+     * @return the first dimension whose digit changed, the digits of every
+     *         following dimension changed too. -1 if the counter was on the last
+     *         tuple, in which case it is left there.
+     */
+    public int increment() {
+        if (index + 1 >= size) {
+            return -1;
+        }
+
+        index++;
+        int d = radices.length - 1;
+        while (++digits[d] == radices[d]) {
+            digits[d] = 0;
+            d--;
+        }
+        return d;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(digits);
+    }
+}
@@ -17,17 +17,45 @@
  */
 package com.broodcamp.util;
 
+import java.beans.PropertyDescriptor;
 import java.lang.reflect.InvocationTargetException;
 
 import org.apache.commons.beanutils.BeanUtilsBean;
+import org.apache.commons.beanutils.DynaBean;
+import org.apache.commons.beanutils.PropertyUtilsBean;
 
 /**
  * Custom {@link BeanUtilsBean} that does not copy null values.
+ * <p>
+ * Simple properties are converted by the {@link TypeConverters} of the instance,
+ * which resolves the converter of each (source type, target type) pair once
+ * instead of going through the global converter registry on every property.
  * 
  * @author Edward P. Legaspi | czetsuya@gmail.com
  */
 public class NullAwareBeanUtilsBean extends BeanUtilsBean {
 
+    private final TypeConverters converters;
+
+    /**
+     * Creates a copier whose converters fall back to its own
+     * {@link #getConvertUtils()}.
+     */
+    public NullAwareBeanUtilsBean() {
+        this.converters = new TypeConverters(getConvertUtils());
+    }
+
+    /**
+     * @param converters the converters used by this copier
+     */
+    public NullAwareBeanUtilsBean(TypeConverters converters) {
+        this.converters = converters;
+    }
+
+    public TypeConverters getConverters() {
+        return converters;
+    }
+
     /**
      * Copy source property to destination. Null value will not be copy. To nullify
      * a field set it to an empty space.
@@ -40,9 +68,46 @@ public class NullAwareBeanUtilsBean extends BeanUtilsBean {
         }
 
         if (value == "") {
-            value = null;
+            super.copyProperty(dest, name, null);
+            return;
         }
 
-        super.copyProperty(dest, name, value);
+        if (dest instanceof DynaBean || !isSimpleName(name)) {
+            super.copyProperty(dest, name, value);
+            return;
+        }
+
+        PropertyUtilsBean propertyUtils = getPropertyUtils();
+        PropertyDescriptor descriptor;
+        try {
+            descriptor = propertyUtils.getPropertyDescriptor(dest, name);
+        } catch (NoSuchMethodException e) {
+            return;
+        }
+        if (descriptor == null || propertyUtils.getWriteMethod(descriptor) == null) {
+            return;
+        }
+
+        Class<?> type = descriptor.getPropertyType();
+        if (type == null) {
+            super.copyProperty(dest, name, value);
+            return;
+        }
+
+        try {
+            propertyUtils.setSimpleProperty(dest, name, converters.convert(value, type));
+        } catch (NoSuchMethodException e) {
+            throw new InvocationTargetException(e, "Cannot set " + name);
+        }
+    }
+
+    private static boolean isSimpleName(String name) {
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c == '.' || c == '[' || c == '(') {
+                return false;
+            }
+        }
+        return true;
     }
 }
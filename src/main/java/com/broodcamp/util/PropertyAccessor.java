@@ -0,0 +1,83 @@
+/**
+ * Broodcamp Library
+ * Copyright (C) 2019 Edward P. Legaspi (https://github.com/czetsuya)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.broodcamp.util;
+
+/**
+ * Reflection-free access to the properties of a class, generated at build time
+ * for the classes annotated with {@link GenerateAccessor}.
+ * <p>
+ * Properties are the fields of the class and its superclasses, as read by
+ * {@link ReflectionUtils#getPropertyValue(Object, String)}. A field is only
+ * exposed if the generated code can access it directly; it is then read and
+ * written like reflection does, without calling its getter or setter. The other
+ * fields are left to reflection.
+ *
+ * @param <T> the accessed class
+ * @author Edward P. Legaspi | czetsuya@gmail.com
+ */
+public interface PropertyAccessor<T> {
+
+    /**
+     * @return the accessed class
+     */
+    Class<T> getType();
+
+    /**
+     * @param name name of a field
+     * @return true if the field can be read by this accessor
+     */
+    boolean isReadable(String name);
+
+    /**
+     * @param name name of a field
+     * @return true if the field can be written by this accessor
+     */
+    boolean isWritable(String name);
+
+    /**
+     * Reads a field.
+     *
+     * @param bean the object to read
+     * @param name name of the field
+     * @return the value of the field
+     * @throws IllegalArgumentException if {@link #isReadable(String)} is false
+     */
+    Object getProperty(T bean, String name);
+
+    /**
+     * Writes a field.
+     *
+     * @param bean  the object to write
+     * @param name  name of the field
+     * @param value the new value
+     * @throws IllegalArgumentException if {@link #isWritable(String)} is false,
+     *                                  the value does not have the type of the
+     *                                  field or is null for a primitive field
+     */
+    void setProperty(T bean, String name, Object value);
+
+    /**
+     * Copies the Java bean properties of an object to another object of the same
+     * class, following the rules of {@link NullAwareBeanUtilsBean}: null values
+     * are not copied.
+     *
+     * @param source the object to copy from
+     * @param target the object to copy to
+     */
+    void copyProperties(T source, T target);
+}
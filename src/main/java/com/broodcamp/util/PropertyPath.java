@@ -0,0 +1,247 @@
+/**
+ * Broodcamp Library
+ * Copyright (C) 2019 Edward P. Legaspi (https://github.com/czetsuya)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.broodcamp.util;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.lang3.ClassUtils;
+import org.apache.commons.lang3.reflect.FieldUtils;
+
+/**
+ * A dotted property path such as "customer.address.city" compiled against a
+ * root class into a chain of field hops. Fields are looked up and made
+ * accessible once; each hop uses the generated {@link PropertyAccessor} of its
+ * class when there is one. Compiled paths are cached per root class.
+ * <p>
+ * A hop whose field is not declared on the static type of the previous hop,
+ * e.g. a field of a subclass, is resolved on the runtime class of the value
+ * instead.
+ *
+ * @author Edward P. Legaspi | czetsuya@gmail.com
+ */
+final class PropertyPath {
+
+    private static final ClassValue<Map<String, PropertyPath>> paths = new ClassValue<Map<String, PropertyPath>>() {
+
+        @Override
+        protected Map<String, PropertyPath> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private final String path;
+    private final Hop[] hops;
+
+    private PropertyPath(String path, Hop[] hops) {
+        this.path = path;
+        this.hops = hops;
+    }
+
+    /**
+     * @param rootType the class of the objects the path is applied to
+     * @param path     dotted property path
+     * @return the compiled path
+     */
+    static PropertyPath compile(Class<?> rootType, String path) {
+        Map<String, PropertyPath> compiled = paths.get(rootType);
+        PropertyPath result = compiled.get(path);
+        if (result == null) {
+            result = compiled.computeIfAbsent(path, p -> doCompile(rootType, p));
+        }
+        return result;
+    }
+
+    private static PropertyPath doCompile(Class<?> rootType, String path) {
+        String[] names = path.split("\\.", -1);
+        Hop[] hops = new Hop[names.length];
+        Class<?> owner = rootType;
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].isEmpty()) {
+                throw new IllegalArgumentException("Invalid property path '" + path + "'");
+            }
+            Field field = owner != null ? FieldUtils.getField(owner, names[i], true) : null;
+            hops[i] = new Hop(names[i], field, owner);
+            owner = field != null ? field.getType() : null;
+        }
+        return new PropertyPath(path, hops);
+    }
+
+    /**
+     * Writes a value at the end of the path.
+     *
+     * @param root                the object the path starts from
+     * @param value               the value to write
+     * @param createIntermediates whether to instantiate null intermediate objects
+     *                            with their no-arg constructor
+     * @throws IllegalAccessException if a field cannot be accessed
+     */
+    void set(Object root, Object value, boolean createIntermediates) throws IllegalAccessException {
+        Object bean = root;
+        for (int i = 0; i < hops.length - 1; i++) {
+            bean = hops[i].getOrCreate(bean, createIntermediates, path);
+        }
+        hops[hops.length - 1].set(bean, value);
+    }
+
+    /**
+     * Writes several paths of the same root class, resolving each shared prefix
+     * once. When both a path and one of its prefixes are given, the prefix is
+     * written first.
+     *
+     * @param root                the object the paths start from
+     * @param values              values by dotted property path
+     * @param createIntermediates whether to instantiate null intermediate objects
+     * @throws IllegalAccessException if a field cannot be accessed
+     */
+    static void setAll(Object root, Map<String, ?> values, boolean createIntermediates) throws IllegalAccessException {
+        Node trie = new Node(null, null);
+        for (Map.Entry<String, ?> entry : values.entrySet()) {
+            PropertyPath compiled = compile(root.getClass(), entry.getKey());
+            Node node = trie;
+            for (Hop hop : compiled.hops) {
+                node = node.child(hop, compiled.path);
+            }
+            node.hasValue = true;
+            node.value = entry.getValue();
+        }
+        trie.apply(root, createIntermediates);
+    }
+
+    /**
+     * One step of a path: a field of the previous object.
+     */
+    private static final class Hop {
+
+        private final String name;
+        private final Field field;
+        private final Class<?> valueType;
+        private final PropertyAccessor<Object> accessor;
+
+        @SuppressWarnings("unchecked")
+        Hop(String name, Field field, Class<?> owner) {
+            this.name = name;
+            this.field = field;
+            this.valueType = field != null ? ClassUtils.primitiveToWrapper(field.getType()) : null;
+            this.accessor = owner != null ? Accessors.forClass((Class<Object>) owner) : null;
+        }
+
+        Object get(Object bean) throws IllegalAccessException {
+            if (accessor != null && accessor.isReadable(name)) {
+                return accessor.getProperty(bean, name);
+            }
+            return field(bean).get(bean);
+        }
+
+        void set(Object bean, Object value) throws IllegalAccessException {
+            if (accessor != null && accessor.isWritable(name)) {
+                // same checks as Field.set, the accessor would fail with a cast or unboxing error
+                if (value == null ? field.getType().isPrimitive() : !valueType.isInstance(value)) {
+                    throw new IllegalArgumentException("Cannot set field " + name + " of " + accessor.getType() + " to "
+                            + (value == null ? "null value" : value.getClass().getName()));
+                }
+                accessor.setProperty(bean, name, value);
+                return;
+            }
+            field(bean).set(bean, value);
+        }
+
+        Object getOrCreate(Object bean, boolean create, String path) throws IllegalAccessException {
+            if (bean instanceof Collection) {
+                throw new IllegalArgumentException("Cannot set property '" + path + "': '" + name + "' is read on a collection");
+            }
+            Object value = get(bean);
+            if (value != null) {
+                return value;
+            }
+            if (!create) {
+                throw new IllegalArgumentException("Cannot set property '" + path + "': '" + name + "' is null");
+            }
+
+            value = instantiate(field(bean).getType(), path);
+            set(bean, value);
+            return value;
+        }
+
+        private Field field(Object bean) {
+            if (field != null) {
+                return field;
+            }
+            Field runtimeField = FieldUtils.getField(bean.getClass(), name, true);
+            if (runtimeField == null) {
+                throw new IllegalArgumentException("No field with name '" + name + "' was found. EntityClass " + bean.getClass());
+            }
+            return runtimeField;
+        }
+
+        private Object instantiate(Class<?> type, String path) {
+            if (type.isInterface() || Modifier.isAbstract(type.getModifiers()) || type.isPrimitive() || type.isArray()) {
+                throw new IllegalArgumentException("Cannot set property '" + path + "': cannot instantiate " + type.getName() + " for '" + name + "'");
+            }
+            try {
+                Constructor<?> constructor = type.getDeclaredConstructor();
+                constructor.setAccessible(true);
+                return constructor.newInstance();
+            } catch (NoSuchMethodException | InstantiationException | IllegalAccessException | InvocationTargetException e) {
+                throw new IllegalArgumentException("Cannot set property '" + path + "': cannot instantiate " + type.getName() + " for '" + name + "'", e);
+            }
+        }
+    }
+
+    /**
+     * Node of the trie of the paths written by
+     * {@link PropertyPath#setAll(Object, Map, boolean)}.
+     */
+    private static final class Node {
+
+        private final Hop hop;
+        private final String path;
+        private final Map<String, Node> children = new LinkedHashMap<>();
+        private boolean hasValue;
+        private Object value;
+
+        Node(Hop hop, String path) {
+            this.hop = hop;
+            this.path = path;
+        }
+
+        Node child(Hop childHop, String childPath) {
+            return children.computeIfAbsent(childHop.name, name -> new Node(childHop, childPath));
+        }
+
+        void apply(Object bean, boolean createIntermediates) throws IllegalAccessException {
+            List<Node> nodes = new ArrayList<>(children.values());
+            for (Node child : nodes) {
+                if (child.hasValue) {
+                    child.hop.set(bean, child.value);
+                }
+                if (!child.children.isEmpty()) {
+                    child.apply(child.hop.getOrCreate(bean, createIntermediates, child.path), createIntermediates);
+                }
+            }
+        }
+    }
+}
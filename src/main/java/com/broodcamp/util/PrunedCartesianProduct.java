@@ -0,0 +1,166 @@
+/**
+ * Broodcamp Library
+ * Copyright (C) 2019 Edward P. Legaspi (https://github.com/czetsuya)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.broodcamp.util;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Depth-first enumeration of a cartesian product that drops a whole subtree as
+ * soon as a partial tuple is rejected.
+ * <p>
+ * In parallel, the values of the leading dimension are split in halves between
+ * fork-join tasks. A value whose subtree is still large is split again on the
+ * next dimension, so a short leading dimension does not limit parallelism.
+ *
+ * @author Edward P. Legaspi | czetsuya@gmail.com
+ */
+final class PrunedCartesianProduct {
+
+    /**
+     * Subtrees with fewer tuples than this are enumerated by a single task.
+     */
+    private static final long SEQUENTIAL_THRESHOLD = 1 << 13;
+
+    private final Object[][] dimensions;
+    private final Predicate<List<Object>> prefixFilter;
+    private final Consumer<List<Object>> consumer;
+
+    /**
+     * Number of tuples under a prefix of each length.
+     */
+    private final long[] subtreeSizes;
+
+    PrunedCartesianProduct(Object[][] dimensions, Predicate<List<Object>> prefixFilter, Consumer<List<Object>> consumer) {
+        this.dimensions = dimensions;
+        this.prefixFilter = prefixFilter;
+        this.consumer = consumer;
+
+        int n = dimensions.length;
+        subtreeSizes = new long[n + 1];
+        subtreeSizes[n] = 1;
+        for (int d = n - 1; d >= 0; d--) {
+            // saturate, sizes are only compared with the threshold
+            long size = subtreeSizes[d + 1] * dimensions[d].length;
+            subtreeSizes[d] = dimensions[d].length != 0 && size / dimensions[d].length != subtreeSizes[d + 1] ? Long.MAX_VALUE : size;
+        }
+    }
+
+    void run() {
+        new Prefix(new Object[dimensions.length]).enumerate(0);
+    }
+
+    void runParallel() {
+        if (dimensions.length == 0) {
+            run();
+            return;
+        }
+        ForkJoinPool.commonPool().invoke(new Task(new Object[dimensions.length], 0, 0, dimensions[0].length));
+    }
+
+    /**
+     * A tuple buffer with read-only views of each of its prefixes, so testing a
+     * prefix does not allocate.
+     */
+    private final class Prefix {
+
+        private final Object[] buffer;
+        private final List<Object>[] views;
+
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        Prefix(Object[] buffer) {
+            this.buffer = buffer;
+            List<Object> tuple = Arrays.asList(buffer);
+            views = new List[buffer.length];
+            for (int i = 0; i < buffer.length; i++) {
+                views[i] = Collections.unmodifiableList(tuple.subList(0, i + 1));
+            }
+        }
+
+        /**
+         * Sets the value at depth and tests the resulting prefix.
+         */
+        boolean accept(int depth, int valueIndex) {
+            buffer[depth] = dimensions[depth][valueIndex];
+            return prefixFilter.test(views[depth]);
+        }
+
+        /**
+         * Enumerates the subtree under the first depth values of the buffer.
+         */
+        void enumerate(int depth) {
+            if (depth == buffer.length) {
+                consumer.accept(Collections.unmodifiableList(Arrays.asList(buffer.clone())));
+                return;
+            }
+
+            Object[] values = dimensions[depth];
+            for (int i = 0; i < values.length; i++) {
+                if (accept(depth, i)) {
+                    enumerate(depth + 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Enumerates the subtrees of the values [from, to) of a dimension under a
+     * fixed prefix.
+     */
+    @SuppressWarnings("serial")
+    private final class Task extends RecursiveAction {
+
+        private final Object[] prefix;
+        private final int depth;
+        private final int from;
+        private final int to;
+
+        Task(Object[] prefix, int depth, int from, int to) {
+            this.prefix = prefix;
+            this.depth = depth;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1 && subtreeSizes[depth + 1] >= SEQUENTIAL_THRESHOLD / (to - from)) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Task(prefix.clone(), depth, from, mid), new Task(prefix.clone(), depth, mid, to));
+                return;
+            }
+
+            Prefix tuple = new Prefix(prefix);
+            for (int i = from; i < to; i++) {
+                if (!tuple.accept(depth, i)) {
+                    continue;
+                }
+                if (depth + 1 < prefix.length && subtreeSizes[depth + 1] >= SEQUENTIAL_THRESHOLD) {
+                    new Task(prefix.clone(), depth + 1, 0, dimensions[depth + 1].length).invoke();
+                } else {
+                    tuple.enumerate(depth + 1);
+                }
+            }
+        }
+    }
+}
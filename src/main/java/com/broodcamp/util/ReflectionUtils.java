@@ -17,7 +17,6 @@
  */
 package com.broodcamp.util;
 
-import java.beans.Transient;
 import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
@@ -25,8 +24,6 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
-import java.lang.reflect.Type;
-import java.lang.reflect.TypeVariable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -34,9 +31,12 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.ResourceBundle;
 import java.util.Set;
 import java.util.StringTokenizer;
-import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
 import javax.persistence.DiscriminatorValue;
@@ -45,6 +45,9 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.reflect.FieldUtils;
 import org.reflections.Reflections;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 /**
  * Collection of utility methods for working with reflection.
  * 
@@ -54,12 +57,95 @@ public class ReflectionUtils {
 
     public static final String SET_PREFIX = "set";
 
+    private static final Logger LOG = Logger.getLogger(ReflectionUtils.class.getName());
+
+    /**
+     * Name of the classpath scans reported to {@link Metrics}.
+     */
+    public static final String SCAN = "ReflectionUtils.scan";
+
+    /**
+     * Name of the field reference lookups reported to {@link Metrics}, by
+     * referenced class, and of their cache.
+     */
+    public static final String FIELD_REFERENCES = "ReflectionUtils.getClassesAndFieldsOfType";
+
+    /**
+     * Maximum number of class names kept by {@link #getHumanClassName(String)}.
+     */
+    public static final int HUMAN_CLASS_NAME_CACHE_SIZE = 1024;
+
+    /**
+     * Name of the cache of {@link #getHumanClassName(String)} reported to
+     * {@link Metrics}.
+     */
+    public static final String HUMAN_CLASS_NAMES = "ReflectionUtils.humanClassNames";
+
     /**
      * Mapping between an entity class and entity classes containing a field of that
      * class.
      */
     @SuppressWarnings("rawtypes")
-    private static Map<Class, Map<Class, List<Field>>> classReferences = new HashMap<>();
+    private static Map<Class, Map<Class, List<Field>>> classReferences = new ConcurrentHashMap<>();
+
+    /**
+     * Reference graphs by entity class and package.
+     */
+    private static final Map<List<Object>, EntityReferenceGraph> entityGraphs = new ConcurrentHashMap<>();
+
+    /**
+     * Simple name indexes of the annotated classes, by annotation and package.
+     */
+    private static final Map<List<Object>, SimpleNameIndex> annotatedClassIndexes = new ConcurrentHashMap<>();
+
+    /**
+     * Simple name indexes of the subclasses, by parent class and package.
+     */
+    private static final Map<List<Object>, SimpleNameIndex> subclassIndexes = new ConcurrentHashMap<>();
+
+    /**
+     * Markers starting the generated part of a proxy class name.
+     */
+    private static final String[] PROXY_MARKERS = { "_$$_", "$$", "$HibernateProxy$", "$ByteBuddy$" };
+
+    /**
+     * Humanized name of each class.
+     */
+    private static final ClassValue<String> humanClassNames = new ClassValue<String>() {
+
+        @Override
+        protected String computeValue(Class<?> type) {
+            return StringUtils.join(StringUtils.splitByCharacterTypeCamelCase(getSimpleClassName(type)), ' ');
+        }
+    };
+
+    /**
+     * Humanized name of each class name, for callers that only have the name.
+     */
+    private static final Cache<String, String> humanClassNamesByName = CacheBuilder.newBuilder().maximumSize(HUMAN_CLASS_NAME_CACHE_SIZE).concurrencyLevel(4).build();
+
+    /**
+     * Labels of each class by bundle base name and locale. The bundles themselves
+     * are not kept, so they and their class loaders can be collected.
+     */
+    private static final ClassValue<Map<List<Object>, String>> classLabels = new ClassValue<Map<List<Object>, String>>() {
+
+        @Override
+        protected Map<List<Object>, String> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    /**
+     * Unproxied class of each class, empty when it cannot be found.
+     */
+    private static final ClassValue<Optional<Class<?>>> cleanClasses = new ClassValue<Optional<Class<?>>>() {
+
+        @Override
+        protected Optional<Class<?>> computeValue(Class<?> type) {
+            return resolveCleanClass(type);
+        }
+    };
 
     private ReflectionUtils() {
 
@@ -90,43 +176,37 @@ public class ReflectionUtils {
     }
 
     /**
-     * Get a list of classes from a given package
+     * Get a list of classes from a given package and its subpackages. The
+     * classpath of the context class loader is scanned with {@link ClassScanner}
+     * and the classes found are loaded without being initialized. Classes that
+     * cannot be loaded, e.g. because of a missing dependency, are logged and
+     * skipped.
      *
      * @param packageName Package name
-     * @return A list of classes
-     * @throws ClassNotFoundException   Class discovery issue
+     * @return A list of classes sorted by name
+     * @throws ClassNotFoundException   never thrown, kept for compatibility
      * @throws IOException              Class discovery issue
-     * @throws IllegalAccessException
-     * @throws IllegalArgumentException
-     * @throws SecurityException
-     * @throws NoSuchFieldException
+     * @throws IllegalAccessException   never thrown, kept for compatibility
+     * @throws IllegalArgumentException never thrown, kept for compatibility
+     * @throws SecurityException        never thrown, kept for compatibility
+     * @throws NoSuchFieldException     never thrown, kept for compatibility
      */
     @SuppressWarnings("rawtypes")
     public static List<Class> getClasses(String packageName)
             throws ClassNotFoundException, IOException, IllegalArgumentException, IllegalAccessException, NoSuchFieldException, SecurityException {
 
-        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
-
-        Class CL_class = classLoader.getClass();
-        while (CL_class != java.lang.ClassLoader.class) {
-            CL_class = CL_class.getSuperclass();
-        }
-        java.lang.reflect.Field ClassLoader_classes_field = CL_class.getDeclaredField("classes");
-        ClassLoader_classes_field.setAccessible(true);
-        Vector classes = (Vector) ClassLoader_classes_field.get(classLoader);
-
-        ArrayList<Class> classList = new ArrayList<Class>();
+        List<ClassDescriptor> descriptors = ClassScanner.scan(packageName);
 
-        synchronized (classes) {
-            for (Object clazz : classes) {
-                if (((Class) clazz).getName().startsWith(packageName)) {
-                    classList.add((Class) clazz);
-                }
+        List<Class> classList = new ArrayList<>(descriptors.size());
+        for (ClassDescriptor descriptor : descriptors) {
+            try {
+                classList.add(descriptor.load());
+            } catch (ClassNotFoundException | LinkageError e) {
+                LOG.log(Level.WARNING, "Cannot load class " + descriptor.getName() + " from " + descriptor.getSource() + ", skipping it", e);
             }
         }
 
         return classList;
-
     }
 
     /**
@@ -152,18 +232,17 @@ public class ReflectionUtils {
     }
 
     /**
-     * Get enum object from string value for a given enum type
+     * Get enum object from string value for a given enum type. The value is
+     * trimmed and matched regardless of case against the constant names and their
+     * {@code @JsonProperty} and {@code @JsonAlias} names.
      *
      * @param enumType  Enum class
      * @param enumValue Enum value as string
-     * @return Enum object
+     * @return Enum object, null if no constant matches
      */
     public static <T extends Enum<T>> T getEnumFromString(Class<T> enumType, String enumValue) {
         if (enumType != null && enumValue != null) {
-            try {
-                return Enum.valueOf(enumType, enumValue.trim().toUpperCase());
-            } catch (IllegalArgumentException ex) {
-            }
+            return enumType.cast(EnumLookup.of(enumType).find(enumValue));
         }
         return null;
     }
@@ -171,20 +250,28 @@ public class ReflectionUtils {
     /**
      * Remove proxy suffix from a class name. Proxy classes contain a name in
      * "..._$$_javassist.. format" If a proxy class object clasname was passed,
-     * strip the ending "_$$_javassist.."to obtain real class name
+     * strip the ending "_$$_javassist.."to obtain real class name. ByteBuddy
+     * "$HibernateProxy$" and "$ByteBuddy$" and CGLIB "$$EnhancerBy" suffixes are
+     * stripped too.
      *
      * @param classname Class name
      * @return Class name without a proxy suffix
      */
     public static String getCleanClassName(String classname) {
 
-        int pos = classname.indexOf("_$$_");
-        if (pos > 0) {
-            classname = classname.substring(0, pos);
+        // most names have no '$' at all
+        int from = classname.indexOf('$');
+        if (from < 0) {
             return classname;
         }
 
-        pos = classname.indexOf("$$");
+        int pos = -1;
+        for (String marker : PROXY_MARKERS) {
+            int index = classname.indexOf(marker, from > 0 ? from - 1 : 0);
+            if (index > 0 && (pos < 0 || index < pos)) {
+                pos = index;
+            }
+        }
         if (pos > 0) {
             classname = classname.substring(0, pos);
         }
@@ -193,31 +280,60 @@ public class ReflectionUtils {
     }
 
     /**
-     * Get a clean class from the proxy class
+     * Get a clean class from the proxy class. The result is cached per class.
      *
      * @param clazz Class or a proxied class
      * @return Class that is not proxied
-     * @throws ClassNotFoundException
+     * @throws ClassNotFoundException if the proxied class cannot be found
      */
     public static Class<?> getCleanClass(Class<?> clazz) throws ClassNotFoundException {
 
-        String className = clazz.getName();
+        Optional<Class<?>> cleanClass = cleanClasses.get(clazz);
+        if (cleanClass.isPresent()) {
+            return cleanClass.get();
+        }
+        throw new ClassNotFoundException(getCleanClassName(clazz.getName()));
+    }
+
+    private static Optional<Class<?>> resolveCleanClass(Class<?> clazz) {
+
+        String className = getCleanClassName(clazz.getName());
+        if (className.equals(clazz.getName())) {
+            return Optional.of(clazz);
+        }
 
-        if (className.contains("$$")) {
-            className = getCleanClassName(className);
-            clazz = Class.forName(className);
+        try {
+            return Optional.of(Class.forName(className, false, clazz.getClassLoader()));
+        } catch (ClassNotFoundException e) {
+            // the proxy's loader may not see the entity, proxies extend it anyway
         }
-        return clazz;
+
+        for (Class<?> superClass = clazz.getSuperclass(); superClass != null; superClass = superClass.getSuperclass()) {
+            if (superClass.getName().equals(className)) {
+                return Optional.of(superClass);
+            }
+        }
+        return Optional.empty();
     }
 
     /**
      * Convert a java type classname to a fuman readable name. E.g. CustomerAccount
-     * to Customer Account
+     * to Customer Account. The names are kept in a bounded cache.
      *
      * @param classname Full or simple classname
      * @return A humanized class name
      */
     public static String getHumanClassName(String classname) {
+        String humanName = humanClassNamesByName.getIfPresent(classname);
+        Metrics.recordCacheAccess(HUMAN_CLASS_NAMES, humanName != null);
+        if (humanName == null) {
+            humanName = humanize(classname);
+            humanClassNamesByName.put(classname, humanName);
+        }
+        return humanName;
+    }
+
+    private static String humanize(String classname) {
         classname = getCleanClassName(classname);
         if (classname.lastIndexOf('.') > 0) {
             classname = classname.substring(classname.lastIndexOf('.') + 1);
@@ -225,6 +341,54 @@ public class ReflectionUtils {
         return StringUtils.join(StringUtils.splitByCharacterTypeCamelCase(classname), ' ');
     }
 
+    /**
+     * Convert a class to a human readable name, e.g. CustomerAccount to Customer
+     * Account. Nested classes are named without their enclosing class. The name
+     * is computed once per class.
+     *
+     * @param clazz Class or a proxied class
+     * @return A humanized class name
+     */
+    public static String getHumanClassName(Class<?> clazz) {
+        return humanClassNames.get(clazz);
+    }
+
+    /**
+     * Get the label of a class from a resource bundle, looked up by the full then
+     * the simple name of the class without proxy suffix. Classes without a label
+     * get their humanized name. Labels are cached per class, bundle base name and
+     * locale, so a bundle reloaded under the same name keeps the cached labels.
+     * Bundles without a base name are not cached.
+     *
+     * @param clazz  Class or a proxied class
+     * @param bundle Labels of the classes, e.g. for the locale of the user
+     * @return The label of the class
+     */
+    public static String getHumanClassName(Class<?> clazz, ResourceBundle bundle) {
+        String baseName = bundle.getBaseBundleName();
+        if (baseName == null) {
+            return findLabel(clazz, bundle);
+        }
+        return classLabels.get(clazz).computeIfAbsent(Arrays.asList(baseName, bundle.getLocale()), key -> findLabel(clazz, bundle));
+    }
+
+    private static String findLabel(Class<?> clazz, ResourceBundle bundle) {
+        String className = getCleanClassName(clazz.getName());
+        if (bundle.containsKey(className)) {
+            return bundle.getString(className);
+        }
+        String simpleName = getSimpleClassName(clazz);
+        if (bundle.containsKey(simpleName)) {
+            return bundle.getString(simpleName);
+        }
+        return getHumanClassName(clazz);
+    }
+
+    private static String getSimpleClassName(Class<?> clazz) {
+        String className = getCleanClassName(clazz.getName());
+        return className.substring(Math.max(className.lastIndexOf('.'), className.lastIndexOf('$')) + 1);
+    }
+
     /**
      * Check if object has a field.
      *
@@ -256,22 +420,21 @@ public class ReflectionUtils {
     }
 
     /**
+     * Find a class by its simple name, regardless of case, among the classes
+     * annotated with a certain annotation. The classes of a package are indexed
+     * by name once per annotation.
+     *
      * @param className       class name
      * @param annotationClass annotation class
      * @return instance of Class.
+     * @throws IllegalStateException if several annotated classes have this name
      */
     public static Class<?> getClassBySimpleNameAndAnnotation(String className, Class<? extends Annotation> annotationClass, String packageName) {
-        Class<?> entityClass = null;
-        if (!StringUtils.isBlank(className)) {
-            Set<Class<?>> classesWithAnnottation = getClassesAnnotatedWith(annotationClass, packageName);
-            for (Class<?> clazz : classesWithAnnottation) {
-                if (className.toLowerCase().equals(clazz.getSimpleName().toLowerCase())) {
-                    entityClass = clazz;
-                    break;
-                }
-            }
+        if (StringUtils.isBlank(className)) {
+            return null;
         }
-        return entityClass;
+        return annotatedClassIndexes.computeIfAbsent(Arrays.asList(annotationClass, packageName),
+                key -> SimpleNameIndex.build(getClassesAnnotatedWith(annotationClass, packageName), true)).get(className);
     }
 
     /**
@@ -288,34 +451,29 @@ public class ReflectionUtils {
      * @return set of class.
      */
     public static Set<Class<?>> getClassesAnnotatedWith(Class<? extends Annotation> annotationClass, String prefix) {
-        Reflections reflections = new Reflections(prefix);
+        Reflections reflections = scan(prefix);
         return reflections.getTypesAnnotatedWith(annotationClass);
     }
 
     /**
-     * Find a class by its simple name that is a subclass of a certain class.
+     * Find a class by its simple name that is a subclass of a certain class. The
+     * subclasses of a package are indexed by name once per parent class.
      *
      * @param className   Simple classname to match
      * @param parentClass Parent or interface class
      * @return A class object
+     * @throws IllegalStateException if several subclasses have this name
      */
     @SuppressWarnings({ "unchecked", "rawtypes" })
     public static Class<?> getClassBySimpleNameAndParentClass(String className, Class parentClass, String packageName) {
-        Class<?> entityClass = null;
-        if (!StringUtils.isBlank(className)) {
-            Reflections reflections = new Reflections(packageName);
-            if (parentClass.getSimpleName().equals(className)) {
-                return parentClass;
-            }
-            Set<Class<?>> classes = reflections.getSubTypesOf(parentClass);
-            for (Class<?> clazz : classes) {
-                if (className.equals(clazz.getSimpleName())) {
-                    entityClass = clazz;
-                    break;
-                }
-            }
+        if (StringUtils.isBlank(className)) {
+            return null;
+        }
+        if (parentClass.getSimpleName().equals(className)) {
+            return parentClass;
         }
-        return entityClass;
+        return subclassIndexes.computeIfAbsent(Arrays.asList(parentClass, packageName),
+                key -> SimpleNameIndex.build(scan(packageName).getSubTypesOf(parentClass), false)).get(className);
     }
 
     /**
@@ -327,7 +485,7 @@ public class ReflectionUtils {
     @SuppressWarnings({ "unchecked", "rawtypes" })
     public static Set<Class<?>> getSubclasses(Class parentClass, String packageName) {
 
-        Reflections reflections = new Reflections(packageName);
+        Reflections reflections = scan(packageName);
         return reflections.getSubTypesOf(parentClass);
     }
 
@@ -355,15 +513,7 @@ public class ReflectionUtils {
      * @return true/false
      */
     public static boolean isMethodImplemented(Object obj, String name) {
-        try {
-            Class<? extends Object> clazz = obj.getClass();
-
-            return clazz.getMethod(name).getDeclaringClass().equals(clazz);
-        } catch (SecurityException | NoSuchMethodException e) {
-
-        }
-
-        return false;
+        return obj != null && isMethodImplemented(obj.getClass(), name, new Class<?>[0]);
     }
 
     /**
@@ -375,11 +525,8 @@ public class ReflectionUtils {
      * @return true/false
      */
     public static boolean isMethodImplemented(Class<? extends Object> clazz, String name, Class<?>... parameterTypes) {
-        try {
-            return clazz.getMethod(name, parameterTypes).getDeclaringClass().equals(clazz);
-        } catch (SecurityException | NoSuchMethodException e) {
-            return false;
-        }
+        Method method = MethodIndex.of(clazz).getPublicMethod(name, parameterTypes);
+        return method != null && method.getDeclaringClass().equals(clazz);
     }
 
     /**
@@ -389,24 +536,7 @@ public class ReflectionUtils {
      * @return true/false
      */
     public static boolean isMethodOverrriden(final Method myMethod) {
-        Class<?> declaringClass = myMethod.getDeclaringClass();
-        if (declaringClass.equals(Object.class)) {
-            return false;
-        }
-        try {
-            declaringClass.getSuperclass().getMethod(myMethod.getName(), myMethod.getParameterTypes());
-            return true;
-        } catch (NoSuchMethodException e) {
-            for (Class<?> iface : declaringClass.getInterfaces()) {
-                try {
-                    iface.getMethod(myMethod.getName(), myMethod.getParameterTypes());
-                    return true;
-                } catch (NoSuchMethodException ignored) {
-
-                }
-            }
-            return false;
-        }
+        return MethodIndex.of(myMethod.getDeclaringClass()).isOverriding(myMethod);
     }
 
     /**
@@ -483,23 +613,34 @@ public class ReflectionUtils {
     }
 
     /**
-     * Determine a generics type of a field.
+     * Determine a generics type of a field: the first type argument of its type,
+     * e.g. the element type of a collection. Wildcards resolve to their bound,
+     * type variables to the class bound by the declaring class and parameterized
+     * arguments to their raw class, e.g. List for a List&lt;List&lt;E&gt;&gt;
+     * field. {@link GenericTypeResolver#getFieldTypeArgumentTypes(Field, Class)}
+     * keeps the nested arguments.
      *
      * @param field instance of Field
-     * @return A class
+     * @return A class, null if the field type is not parameterized
      */
     @SuppressWarnings("rawtypes")
     public static Class getFieldGenericsType(Field field) {
+        return getFieldGenericsType(field, field.getDeclaringClass());
+    }
 
-        if (field.getGenericType() instanceof ParameterizedType) {
-            ParameterizedType aType = (ParameterizedType) field.getGenericType();
-            Type[] fieldArgTypes = aType.getActualTypeArguments();
-            for (Type fieldArgType : fieldArgTypes) {
-                return (Class) fieldArgType;
-            }
-
-        }
-        return null;
+    /**
+     * Determine a generics type of a field as seen from a subclass of its
+     * declaring class, e.g. Customer for a List&lt;E&gt; field of BaseDao&lt;E&gt;
+     * seen from CustomerDao.
+     *
+     * @param field instance of Field
+     * @param clazz The declaring class of the field or a subclass of it
+     * @return A class, null if the field type is not parameterized
+     */
+    @SuppressWarnings("rawtypes")
+    public static Class getFieldGenericsType(Field field, Class<?> clazz) {
+        Class<?>[] arguments = GenericTypeResolver.getFieldTypeArguments(field, clazz);
+        return arguments.length > 0 ? arguments[0] : null;
     }
 
     /**
@@ -538,14 +679,77 @@ public class ReflectionUtils {
         int fieldIndex = property.indexOf(".");
         if (property.indexOf(".") != -1) {
             String fieldName = property.substring(0, fieldIndex);
-            Object fieldValue = FieldUtils.readField(obj, fieldName, true);
+            Object fieldValue = readField(obj, fieldName);
             if (fieldValue == null) {
                 return null;
             }
             return getPropertyValue(fieldValue, property.substring(fieldIndex + 1));
         } else {
-            return FieldUtils.readField(obj, property, true);
+            return readField(obj, property);
+        }
+    }
+
+    /**
+     * Reads a field with the generated accessor of the object's class when there
+     * is one, with reflection otherwise.
+     * 
+     * @param obj       the object to read
+     * @param fieldName name of the field
+     * @return the value of the field
+     * @throws IllegalAccessException if the field cannot be read
+     */
+    @SuppressWarnings("unchecked")
+    private static Object readField(Object obj, String fieldName) throws IllegalAccessException {
+        if (obj != null) {
+            PropertyAccessor<Object> accessor = Accessors.forClass((Class<Object>) obj.getClass());
+            if (accessor != null && accessor.isReadable(fieldName)) {
+                return accessor.getProperty(obj, fieldName);
+            }
         }
+        return FieldUtils.readField(obj, fieldName, true);
+    }
+
+    /**
+     * Writes a value at a dotted property path, e.g. "customer.address.city".
+     * Intermediate objects must not be null.
+     *
+     * @see #setPropertyValue(Object, String, Object, boolean)
+     */
+    public static void setPropertyValue(Object obj, String property, Object value) throws IllegalAccessException {
+        setPropertyValue(obj, property, value, false);
+    }
+
+    /**
+     * Writes a value at a dotted property path, e.g. "customer.address.city". The
+     * path is compiled once per class into a chain of accessible fields, using the
+     * generated accessors when available.
+     *
+     * @param obj                 the object the path starts from
+     * @param property            dotted property path
+     * @param value               the value to write
+     * @param createIntermediates whether null intermediate objects are created
+     *                            with their no-arg constructor
+     * @throws IllegalAccessException   if a field cannot be written
+     * @throws IllegalArgumentException if a field does not exist, an intermediate
+     *                                  object is null or the value does not match
+     *                                  the field type
+     */
+    public static void setPropertyValue(Object obj, String property, Object value, boolean createIntermediates) throws IllegalAccessException {
+        PropertyPath.compile(obj.getClass(), property).set(obj, value, createIntermediates);
+    }
+
+    /**
+     * Writes several dotted property paths at once. Paths sharing a prefix, e.g.
+     * "address.city" and "address.zip", resolve or create that prefix only once.
+     *
+     * @param obj                 the object the paths start from
+     * @param values              values by dotted property path
+     * @param createIntermediates whether null intermediate objects are created
+     *                            with their no-arg constructor
+     * @throws IllegalAccessException if a field cannot be written
+     */
+    public static void setPropertyValues(Object obj, Map<String, ?> values, boolean createIntermediates) throws IllegalAccessException {
+        PropertyPath.setAll(obj, values, createIntermediates);
     }
 
     public static Optional<Object> getPropertyValueOrNull(Object obj, String property) {
@@ -558,51 +762,58 @@ public class ReflectionUtils {
 
     /**
      * Get classes containing a given type field - can be either a single value or a
-     * list of values.
+     * list of values. Fields of the direct superclass of the type match too.
      *
      * @param fieldClass Field class
      * @return A map of fields grouped by class
+     * @see #getEntityReferenceGraph(Class, String)
      */
     @SuppressWarnings("rawtypes")
     public static Map<Class, List<Field>> getClassesAndFieldsOfType(Class entityClass, Class fieldClass, String packageName) {
 
-        if (classReferences.containsKey(fieldClass)) {
-            return classReferences.get(fieldClass);
+        Map<Class, List<Field>> matchedFields = classReferences.get(fieldClass);
+        Metrics.recordCacheAccess(FIELD_REFERENCES, matchedFields != null);
+        if (matchedFields != null) {
+            return matchedFields;
         }
 
-        Class superClass = fieldClass.getSuperclass();
-
-        Map<Class, List<Field>> matchedFields = new HashMap<>();
-
-        Reflections reflections = new Reflections(packageName);
-        Set<Class<?>> classes = reflections.getSubTypesOf(entityClass);
+        long start = Metrics.start();
 
-        for (Class<?> clazz : classes) {
-            if (clazz.isInterface() || Modifier.isAbstract(clazz.getModifiers())) {
-                continue;
-            }
-            List<Field> fields = getAllFields(new ArrayList<Field>(), clazz);
-
-            for (Field field : fields) {
-
-                if (field.isAnnotationPresent(Transient.class)) {
-                    continue;
-                }
-
-                if (field.getType() == fieldClass || (Collection.class.isAssignableFrom(field.getType()) && getFieldGenericsType(field) == fieldClass) || (superClass != null
-                        && (field.getType() == superClass || (Collection.class.isAssignableFrom(field.getType()) && getFieldGenericsType(field) == superClass)))) {
+        EntityReferenceGraph graph = getEntityReferenceGraph(entityClass, packageName);
 
-                    if (!matchedFields.containsKey(clazz)) {
-                        matchedFields.put(clazz, new ArrayList<>());
-                    }
-                    matchedFields.get(clazz).add(field);
-                }
-            }
+        matchedFields = new HashMap<>();
+        addFields(matchedFields, graph.getDirectReferences(fieldClass));
+        if (fieldClass.getSuperclass() != null) {
+            addFields(matchedFields, graph.getDirectReferences(fieldClass.getSuperclass()));
         }
+
         classReferences.put(fieldClass, matchedFields);
+        Metrics.record(FIELD_REFERENCES, fieldClass, start, 0);
         return matchedFields;
     }
 
+    @SuppressWarnings("rawtypes")
+    private static void addFields(Map<Class, List<Field>> matchedFields, Map<Class<?>, List<Field>> fields) {
+        fields.forEach((clazz, classFields) -> matchedFields.computeIfAbsent(clazz, k -> new ArrayList<>()).addAll(classFields));
+    }
+
+    /**
+     * Get the reference graph of the concrete subclasses of an entity class. The
+     * package is scanned and the graph built once, in a single pass over the
+     * fields of the classes.
+     *
+     * @param entityClass Parent class of the entities, e.g. a base entity
+     * @param packageName Package of the entities
+     * @return The reference graph of the entities
+     */
+    public static EntityReferenceGraph getEntityReferenceGraph(Class<?> entityClass, String packageName) {
+        return entityGraphs.computeIfAbsent(Arrays.asList(entityClass, packageName), key -> {
+            Set<? extends Class<?>> classes = scan(packageName).getSubTypesOf(entityClass);
+            return EntityReferenceGraph.build(classes.stream().filter(clazz -> !clazz.isInterface() && !Modifier.isAbstract(clazz.getModifiers()))
+                    .collect(Collectors.toList()));
+        });
+    }
+
     /**
      * Find methods annotated with annotationClass
      * 
@@ -613,15 +824,7 @@ public class ReflectionUtils {
      */
 
     public static List<Method> findAnnotatedMethods(Class<?> clazz, Class<? extends Annotation> annotationClass) {
-        Method[] methods = clazz.getMethods();
-        List<Method> annotatedMethods = new ArrayList<Method>(methods.length);
-        for (Method method : methods) {
-            if (method.isAnnotationPresent(annotationClass)) {
-                annotatedMethods.add(method);
-            }
-        }
-
-        return annotatedMethods;
+        return new ArrayList<>(MethodIndex.of(clazz).getAnnotatedMethods(annotationClass));
     }
 
     /**
@@ -634,24 +837,7 @@ public class ReflectionUtils {
      * @return
      */
     private static Method getMethodFromInterface(Class<?> cls, Class<? extends Annotation> annotationClass, String methodName, Class... parameterTypes) {
-        while (cls != null) {
-            Class<?>[] interfaces = cls.getInterfaces();
-
-            for (int i = 0; i < interfaces.length; ++i) {
-                if (interfaces[i].isAnnotationPresent(annotationClass) && Modifier.isPublic(interfaces[i].getModifiers())) {
-                    try {
-                        return interfaces[i].getDeclaredMethod(methodName, parameterTypes);
-                    } catch (NoSuchMethodException nsme) {
-                        Method method = getMethodFromInterface(interfaces[i], annotationClass, methodName, parameterTypes);
-                        if (method != null) {
-                            return method;
-                        }
-                    }
-                }
-            }
-            cls = cls.getSuperclass();
-        }
-        return null;
+        return MethodIndex.of(cls).getInterfaceMethod(annotationClass, methodName, parameterTypes);
     }
 
     /**
@@ -685,19 +871,42 @@ public class ReflectionUtils {
         }
     }
 
+    /**
+     * Get a type argument of the nearest parameterized superclass of a class, e.g.
+     * Customer for index 0 of CustomerDao extends BaseDao&lt;Customer, Long&gt;.
+     * Type variables bound further down the hierarchy are resolved, also inside
+     * a parameterized argument: List&lt;E&gt; is returned as the
+     * {@link ParameterizedType} List&lt;Customer&gt; when E is bound to Customer.
+     *
+     * @param clazz          Class extending a parameterized superclass
+     * @param parameterIndex Index of the type argument
+     * @return The class of the type argument, or its {@link ParameterizedType}
+     *         when the argument is parameterized
+     * @see GenericTypeResolver#getTypeArgumentTypes(Class, Class)
+     */
     @SuppressWarnings("rawtypes")
     public static Object getParameterTypeClass(Class clazz, int parameterIndex) {
-        while (!(clazz.getGenericSuperclass() instanceof ParameterizedType)) {
-            clazz = clazz.getSuperclass();
+        Class<?> parameterizedClass = clazz;
+        while (!(parameterizedClass.getGenericSuperclass() instanceof ParameterizedType)) {
+            parameterizedClass = parameterizedClass.getSuperclass();
         }
 
-        Object o = ((ParameterizedType) clazz.getGenericSuperclass()).getActualTypeArguments()[parameterIndex];
-
-        if (o instanceof TypeVariable) {
-            return ((TypeVariable) o).getBounds()[parameterIndex];
+        Class<?> genericClass = (Class<?>) ((ParameterizedType) parameterizedClass.getGenericSuperclass()).getRawType();
+        return GenericTypeResolver.getTypeArgumentTypes(clazz, genericClass)[parameterIndex];
+    }
 
-        } else {
-            return o;
+    /**
+     * Scans the classpath for the classes of a package.
+     * 
+     * @param packageName package prefix
+     * @return the scanned metadata
+     */
+    private static Reflections scan(String packageName) {
+        long start = Metrics.start();
+        try {
+            return new Reflections(packageName);
+        } finally {
+            Metrics.record(SCAN, null, start, 0);
         }
     }
 }
@@ -0,0 +1,95 @@
+/**
+ * Broodcamp Library
+ * Copyright (C) 2019 Edward P. Legaspi (https://github.com/czetsuya)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.broodcamp.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Index of a set of classes by simple name, optionally ignoring case. Simple
+ * names shared by several classes are recorded as ambiguous when the index is
+ * built, and looking them up fails instead of returning an arbitrary class.
+ *
+ * @author Edward P. Legaspi | czetsuya@gmail.com
+ */
+final class SimpleNameIndex {
+
+    private final boolean ignoreCase;
+    private final Map<String, Class<?>> classes = new HashMap<>();
+    private final Map<String, List<Class<?>>> ambiguousClasses = new HashMap<>();
+
+    private SimpleNameIndex(Collection<? extends Class<?>> types, boolean ignoreCase) {
+        this.ignoreCase = ignoreCase;
+
+        Map<String, List<Class<?>>> byName = new HashMap<>();
+        for (Class<?> type : types) {
+            byName.computeIfAbsent(normalize(type.getSimpleName()), k -> new ArrayList<>(1)).add(type);
+        }
+        byName.forEach((name, candidates) -> {
+            if (candidates.size() == 1) {
+                classes.put(name, candidates.get(0));
+            } else {
+                candidates.sort(Comparator.comparing(Class::getName));
+                ambiguousClasses.put(name, Collections.unmodifiableList(candidates));
+            }
+        });
+    }
+
+    /**
+     * @param types      the classes to index
+     * @param ignoreCase whether the names are matched regardless of case
+     * @return the index of the classes
+     */
+    static SimpleNameIndex build(Collection<? extends Class<?>> types, boolean ignoreCase) {
+        return new SimpleNameIndex(types, ignoreCase);
+    }
+
+    /**
+     * @param simpleName the simple name of a class
+     * @return the class with this simple name, null if none
+     * @throws IllegalStateException if several classes have this simple name
+     */
+    Class<?> get(String simpleName) {
+        String name = normalize(simpleName);
+        Class<?> type = classes.get(name);
+        if (type == null && ambiguousClasses.containsKey(name)) {
+            throw new IllegalStateException("Ambiguous class name " + simpleName + ", matches "
+                    + ambiguousClasses.get(name).stream().map(Class::getName).collect(Collectors.joining(", ")));
+        }
+        return type;
+    }
+
+    /**
+     * @return the normalized simple names shared by several classes
+     */
+    Set<String> getAmbiguousNames() {
+        return Collections.unmodifiableSet(ambiguousClasses.keySet());
+    }
+
+    private String normalize(String simpleName) {
+        return ignoreCase ? simpleName.toLowerCase(Locale.ROOT) : simpleName;
+    }
+}
@@ -17,13 +17,25 @@
  */
 package com.broodcamp.util;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Paths;
 import java.text.Normalizer;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.MatchResult;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 
 /**
  * Collection of utility methods for String.
@@ -32,6 +44,33 @@ import java.util.regex.Pattern;
  */
 public class StringUtils {
 
+    /**
+     * Maximum number of compiled patterns kept by {@link #compilePattern(String)}.
+     */
+    public static final int PATTERN_CACHE_SIZE = 256;
+
+    /**
+     * Name of the compiled pattern cache reported to {@link Metrics}.
+     */
+    public static final String PATTERN_CACHE = "StringUtils.patternCache";
+
+    /**
+     * Bounded cache of compiled regular expressions keyed by their source.
+     */
+    private static final Cache<String, Pattern> patternCache = CacheBuilder.newBuilder().maximumSize(PATTERN_CACHE_SIZE).concurrencyLevel(4).build();
+
+    /**
+     * Accent folding table used by {@link #normalize(String)}, indexed by
+     * character.
+     */
+    private static final char[] FOLDING_TABLE = buildFoldingTable();
+
+    /**
+     * Characters written by {@link #escape(byte[])}, indexed by unsigned byte
+     * value.
+     */
+    private static final char[][] BYTE_ESCAPES = buildByteEscapes();
+
     private StringUtils() {
 
     }
@@ -92,18 +131,16 @@ public class StringUtils {
         return sb.toString();
     }
 
-    public static String readFileAsString(String filePath) throws java.io.IOException {
-        StringBuilder fileData = new StringBuilder(1000);
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            char[] buf = new char[1024];
-            int numRead = 0;
-            while ((numRead = reader.read(buf)) != -1) {
-                String readData = String.valueOf(buf, 0, numRead);
-                fileData.append(readData);
-                buf = new char[1024];
-            }
-        }
-        return fileData.toString();
+    /**
+     * Reads a file in the platform charset.
+     * 
+     * @param filePath path of the file
+     * @return the content of the file
+     * @throws IOException if the file cannot be read
+     * @see FileUtils#readString(java.nio.file.Path, Charset)
+     */
+    public static String readFileAsString(String filePath) throws IOException {
+        return FileUtils.readString(Paths.get(filePath), Charset.defaultCharset());
     }
 
     public static String truncate(String s, int length, boolean indicator) {
@@ -117,38 +154,97 @@ public class StringUtils {
     }
 
     /**
-     * @param value
-     * @param nbChar
-     * @return
+     * Pads a string with spaces on the right up to nbChar characters. Longer
+     * strings are returned as is.
+     * 
+     * @param value  the string to pad
+     * @param nbChar the minimum length of the result
+     * @return the padded string, null if value is null
      */
     public static String getStringAsNChar(String value, int nbChar) {
         if (value == null) {
             return null;
         }
-        String buildString = value;
-        while (buildString.length() < nbChar) {
-            buildString = buildString + " ";
+        if (value.length() >= nbChar) {
+            return value;
         }
-        return buildString;
+        return appendStringAsNChar(new StringBuilder(nbChar), value, nbChar).toString();
     }
 
     /**
-     * @param value
-     * @param nbChar
-     * @return
+     * Appends a value padded with spaces on the right up to nbChar characters.
+     * Longer values are appended as is.
+     * 
+     * @param sb     the builder to append to
+     * @param value  the value to append
+     * @param nbChar the minimum number of characters to append
+     * @return sb
+     */
+    public static StringBuilder appendStringAsNChar(StringBuilder sb, CharSequence value, int nbChar) {
+        sb.append(value);
+        for (int i = value.length(); i < nbChar; i++) {
+            sb.append(' ');
+        }
+        return sb;
+    }
+
+    /**
+     * Formats a number padded with zeros on the left up to nbChar characters. The
+     * sign of a negative number replaces the first padding zero, e.g. -5 on 4
+     * characters gives "-005". Numbers that need more than nbChar characters are
+     * returned in full.
+     * 
+     * @param value  the number to format
+     * @param nbChar the minimum length of the result
+     * @return the padded number
      */
     public static String getLongAsNChar(long value, int nbChar) {
-        String firstChar = "0";
+        return appendLongAsNChar(new StringBuilder(Math.max(nbChar, 20)), value, nbChar).toString();
+    }
+
+    /**
+     * Appends a number padded with zeros on the left up to nbChar characters.
+     * 
+     * @param sb     the builder to append to
+     * @param value  the number to append
+     * @param nbChar the minimum number of characters to append
+     * @return sb
+     * @see #getLongAsNChar(long, int)
+     */
+    public static StringBuilder appendLongAsNChar(StringBuilder sb, long value, int nbChar) {
         if (value < 0) {
-            firstChar = "-";
-            value = value * -1;
+            sb.append('-');
+        }
+        for (int i = stringSize(value); i < nbChar; i++) {
+            sb.append('0');
+        }
+
+        if (value == Long.MIN_VALUE) {
+            sb.append("9223372036854775808");
+        } else {
+            sb.append(Math.abs(value));
+        }
+        return sb;
+    }
+
+    /**
+     * Returns the number of characters of the decimal representation of a number,
+     * sign included.
+     */
+    static int stringSize(long value) {
+        int signSize = 1;
+        if (value >= 0) {
+            signSize = 0;
+            value = -value;
         }
-        String buildString = "" + value;
-        while (buildString.length() < nbChar) {
-            buildString = "0" + buildString;
+        long p = -10;
+        for (int i = 1; i < 19; i++) {
+            if (value > p) {
+                return i + signSize;
+            }
+            p = 10 * p;
         }
-        buildString = buildString.replaceFirst("0", firstChar);
-        return buildString;
+        return 19 + signSize;
     }
 
     public static String getArrayElements(String[] t) {
@@ -171,27 +267,159 @@ public class StringUtils {
         return sb.toString();
     }
 
+    /**
+     * Removes the accents from a string, e.g. "Crème brûlée" becomes "Creme
+     * brulee". The result is the same as decomposing the value to NFD and dropping
+     * the combining diacritical marks.
+     * <p>
+     * ASCII input is returned as is. Latin-1 and Latin Extended characters are
+     * folded with a lookup table; only values containing other characters go
+     * through {@link Normalizer}.
+     * 
+     * @param value the string to normalize
+     * @return the string without accents
+     */
     public static String normalize(String value) {
-        if (StringUtils.isBlank(value)) {
+        if (value == null || value.isEmpty()) {
             return value;
         }
-        return Normalizer.normalize(value, Normalizer.Form.NFD).replaceAll("[\u0300-\u036F]", "");
+        return fold(value, false);
     }
 
+    /**
+     * Normalizes a string and replaces every character that is not a letter, a
+     * digit, '.', '-' or '@' with an underscore.
+     * 
+     * @param value the string to normalize
+     * @return a string usable as a hierarchy code
+     */
     public static String normalizeHierarchyCode(String value) {
         if (StringUtils.isBlank(value)) {
             return value;
         }
+        return fold(value, true);
+    }
+
+    /**
+     * Single pass implementation of {@link #normalize(String)} and
+     * {@link #normalizeHierarchyCode(String)}.
+     */
+    private static String fold(String value, boolean hierarchyCode) {
+        int length = value.length();
+        int i = 0;
+        while (i < length) {
+            char c = value.charAt(i);
+            if (c >= 0x80 || (hierarchyCode && !isHierarchyCodeChar(c))) {
+                break;
+            }
+            i++;
+        }
+        if (i == length) {
+            return value;
+        }
+
+        StringBuilder sb = new StringBuilder(length);
+        sb.append(value, 0, i);
+        for (; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < FOLDING_TABLE.length) {
+                c = FOLDING_TABLE[c];
+
+            } else if (isCombiningDiacriticalMark(c)) {
+                continue;
+
+            } else {
+                return foldWithNormalizer(value, hierarchyCode);
+            }
+
+            sb.append(hierarchyCode && !isHierarchyCodeChar(c) ? '_' : c);
+        }
+        return sb.toString();
+    }
 
-        String newValue = normalize(value);
+    /**
+     * Slow path of {@link #fold(String, boolean)} for values with characters
+     * outside of the folding table.
+     */
+    private static String foldWithNormalizer(String value, boolean hierarchyCode) {
+        String decomposed = Normalizer.normalize(value, Normalizer.Form.NFD);
+        StringBuilder sb = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length();) {
+            int codePoint = decomposed.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (isCombiningDiacriticalMark(codePoint)) {
+                continue;
+            }
+            if (hierarchyCode && !isHierarchyCodeChar(codePoint)) {
+                sb.append('_');
+            } else {
+                sb.appendCodePoint(codePoint);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static boolean isCombiningDiacriticalMark(int codePoint) {
+        return codePoint >= '\u0300' && codePoint <= '\u036F';
+    }
+
+    private static boolean isHierarchyCodeChar(int c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '-' || c == '.' || c == '@';
+    }
 
-        newValue = newValue.replaceAll("[^\\-A-Za-z0-9.@-]", "_");
-        return newValue;
+    /**
+     * Builds the accent folding table for the Basic Latin, Latin-1 and Latin
+     * Extended-A/B blocks, where every character decomposes to a single base
+     * character.
+     */
+    private static char[] buildFoldingTable() {
+        char[] table = new char[0x250];
+        for (char c = 0; c < table.length; c++) {
+            String decomposed = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+            table[c] = decomposed.charAt(0);
+        }
+        return table;
     }
 
+    /**
+     * Returns the compiled form of a regular expression. Compiled patterns are kept
+     * in a bounded cache so that callers matching the same expression repeatedly
+     * do not recompile it.
+     * 
+     * @param regex the regular expression
+     * @return the compiled pattern
+     * @throws java.util.regex.PatternSyntaxException if the expression is invalid
+     */
+    public static Pattern compilePattern(String regex) {
+        Pattern pattern = patternCache.getIfPresent(regex);
+        Metrics.recordCacheAccess(PATTERN_CACHE, pattern != null);
+        if (pattern == null) {
+            pattern = Pattern.compile(regex);
+            patternCache.put(regex, pattern);
+        }
+        return pattern;
+    }
+
+    /**
+     * Finds the first match of a regular expression and returns its first group.
+     * 
+     * @param regex the regular expression, compiled once and cached
+     * @param text  the text to search
+     * @return the value of group 1 of the first match, null if there is no match
+     */
     public static String patternMacher(String regex, String text) {
+        return patternMacher(compilePattern(regex), text);
+    }
+
+    /**
+     * Finds the first match of a compiled pattern and returns its first group.
+     * 
+     * @param pattern the compiled pattern
+     * @param text    the text to search
+     * @return the value of group 1 of the first match, null if there is no match
+     */
+    public static String patternMacher(Pattern pattern, String text) {
         String result = null;
-        Pattern pattern = Pattern.compile(regex);
         Matcher matcher = pattern.matcher(text);
         if (matcher.find()) {
             result = matcher.group(1);
@@ -199,6 +427,64 @@ public class StringUtils {
         return result;
     }
 
+    /**
+     * Finds the first match of a regular expression and returns all its groups.
+     * 
+     * @param regex the regular expression, compiled once and cached
+     * @param text  the text to search
+     * @return the values of groups 1 to n of the first match, an empty list if
+     *         there is no match
+     */
+    public static List<String> patternMacherGroups(String regex, String text) {
+        return patternMacherGroups(compilePattern(regex), text);
+    }
+
+    /**
+     * Finds the first match of a compiled pattern and returns all its groups.
+     * 
+     * @param pattern the compiled pattern
+     * @param text    the text to search
+     * @return the values of groups 1 to n of the first match, an empty list if
+     *         there is no match
+     */
+    public static List<String> patternMacherGroups(Pattern pattern, String text) {
+        Matcher matcher = pattern.matcher(text);
+        if (!matcher.find()) {
+            return Collections.emptyList();
+        }
+
+        int groupCount = matcher.groupCount();
+        List<String> groups = new ArrayList<>(groupCount);
+        for (int i = 1; i <= groupCount; i++) {
+            groups.add(matcher.group(i));
+        }
+        return groups;
+    }
+
+    /**
+     * Returns every match of a regular expression in a text. The stream is lazy:
+     * the text is only scanned as far as the stream is consumed.
+     * 
+     * @param regex the regular expression, compiled once and cached
+     * @param text  the text to search
+     * @return a stream of match results
+     */
+    public static Stream<MatchResult> patternMatches(String regex, CharSequence text) {
+        return patternMatches(compilePattern(regex), text);
+    }
+
+    /**
+     * Returns every match of a compiled pattern in a text. The stream is lazy: the
+     * text is only scanned as far as the stream is consumed.
+     * 
+     * @param pattern the compiled pattern
+     * @param text    the text to search
+     * @return a stream of match results
+     */
+    public static Stream<MatchResult> patternMatches(Pattern pattern, CharSequence text) {
+        return pattern.matcher(text).results();
+    }
+
     /**
      * Compares two strings. Handles null values without exception
      * 
@@ -221,15 +507,143 @@ public class StringUtils {
         return 0;
     }
 
+    /**
+     * Escapes binary data for logging. Printable ASCII characters are kept, other
+     * bytes are written as "\0x" followed by their hexadecimal value.
+     * 
+     * @param data the bytes to escape
+     * @return the escaped string
+     */
     public static String escape(byte[] data) {
-        StringBuilder cbuf = new StringBuilder();
-        for (byte b : data) {
+        return escape(ByteBuffer.wrap(data));
+    }
+
+    /**
+     * Escapes the remaining bytes of a buffer. The position of the buffer is not
+     * changed.
+     * 
+     * @param data the bytes to escape
+     * @return the escaped string
+     * @see #escape(byte[])
+     */
+    public static String escape(ByteBuffer data) {
+        return escape(data, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Escapes at most maxBytes of the remaining bytes of a buffer. When the buffer
+     * has more, the result ends with the number of bytes that were left out. The
+     * position of the buffer is not changed.
+     * 
+     * @param data     the bytes to escape
+     * @param maxBytes maximum number of bytes to escape
+     * @return the escaped string
+     * @throws IllegalArgumentException if maxBytes is negative
+     * @see #escape(byte[])
+     */
+    public static String escape(ByteBuffer data, int maxBytes) {
+        int from = data.position();
+        int to = escapeEnd(data, maxBytes);
+
+        int size = 0;
+        for (int i = from; i < to; i++) {
+            size += BYTE_ESCAPES[data.get(i) & 0xFF].length;
+        }
+
+        StringBuilder sb = new StringBuilder(to < data.limit() ? size + 32 : size);
+        for (int i = from; i < to; i++) {
+            sb.append(BYTE_ESCAPES[data.get(i) & 0xFF]);
+        }
+        if (to < data.limit()) {
+            sb.append("...(").append(data.limit() - to).append(" more bytes)");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Escapes the remaining bytes of a buffer to an {@link Appendable}, without
+     * building an intermediate string. The position of the buffer is not changed.
+     * 
+     * @param data the bytes to escape
+     * @param out  where the escaped bytes are written
+     * @throws IOException if out cannot be written
+     * @see #escape(byte[])
+     */
+    public static void escape(ByteBuffer data, Appendable out) throws IOException {
+        escape(data, Integer.MAX_VALUE, out);
+    }
+
+    /**
+     * Escapes at most maxBytes of the remaining bytes of a buffer to an
+     * {@link Appendable}.
+     * 
+     * @param data     the bytes to escape
+     * @param maxBytes maximum number of bytes to escape
+     * @param out      where the escaped bytes are written
+     * @throws IOException              if out cannot be written
+     * @throws IllegalArgumentException if maxBytes is negative
+     * @see #escape(ByteBuffer, int)
+     */
+    public static void escape(ByteBuffer data, int maxBytes, Appendable out) throws IOException {
+        int from = data.position();
+        int to = escapeEnd(data, maxBytes);
+
+        if (out instanceof StringBuilder) {
+            StringBuilder sb = (StringBuilder) out;
+            for (int i = from; i < to; i++) {
+                sb.append(BYTE_ESCAPES[data.get(i) & 0xFF]);
+            }
+
+        } else {
+            // escape by chunks to hand the output a few large writes
+            char[] chunk = new char[1024];
+            int length = 0;
+            for (int i = from; i < to; i++) {
+                char[] escaped = BYTE_ESCAPES[data.get(i) & 0xFF];
+                if (length + escaped.length > chunk.length) {
+                    write(out, chunk, length);
+                    length = 0;
+                }
+                System.arraycopy(escaped, 0, chunk, length, escaped.length);
+                length += escaped.length;
+            }
+            write(out, chunk, length);
+        }
+
+        if (to < data.limit()) {
+            out.append("...(").append(Integer.toString(data.limit() - to)).append(" more bytes)");
+        }
+    }
+
+    private static int escapeEnd(ByteBuffer data, int maxBytes) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("Max bytes must not be negative: " + maxBytes);
+        }
+        return data.position() + Math.min(data.remaining(), maxBytes);
+    }
+
+    private static void write(Appendable out, char[] chars, int length) throws IOException {
+        if (out instanceof Writer) {
+            ((Writer) out).write(chars, 0, length);
+        } else {
+            out.append(CharBuffer.wrap(chars, 0, length));
+        }
+    }
+
+    /**
+     * Builds the characters written by {@link #escape(byte[])} for each byte
+     * value.
+     */
+    private static char[][] buildByteEscapes() {
+        char[] hexDigits = "0123456789abcdef".toCharArray();
+        char[][] escapes = new char[256][];
+        for (int b = 0; b < escapes.length; b++) {
             if (b >= 0x20 && b <= 0x7e) {
-                cbuf.append((char) b);
+                escapes[b] = new char[] { (char) b };
             } else {
-                cbuf.append(String.format("\\0x%02x", b & 0xFF));
+                escapes[b] = new char[] { '\\', '0', 'x', hexDigits[b >> 4], hexDigits[b & 0xF] };
             }
         }
-        return cbuf.toString();
+        return escapes;
     }
 }
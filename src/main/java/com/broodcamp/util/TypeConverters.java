@@ -0,0 +1,183 @@
+/**
+ * Broodcamp Library
+ * Copyright (C) 2019 Edward P. Legaspi (https://github.com/czetsuya)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.broodcamp.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.Function;
+
+import org.apache.commons.beanutils.ConvertUtilsBean;
+import org.apache.commons.beanutils.Converter;
+import org.apache.commons.lang3.ClassUtils;
+
+/**
+ * Registry of typed converters used when copying properties. The converter of a
+ * (source type, target type) pair is resolved once and cached:
+ * <ol>
+ * <li>a converter registered for the pair, or for a supertype of the source
+ * type,</li>
+ * <li>the identity when the source type is the target type, or its primitive
+ * or wrapper type,</li>
+ * <li>the converter of the {@link ConvertUtilsBean} given as fallback, so a
+ * {@code Timestamp} copied to a {@code Date} property is still converted to a
+ * new {@code Date}.</li>
+ * </ol>
+ * Converters are registered per instance, so each copier can have its own.
+ * Converters are cached per class with {@link ClassValue}s, so a registry kept
+ * in a static field does not prevent application classes from being unloaded.
+ *
+ * @author Edward P. Legaspi | czetsuya@gmail.com
+ */
+public class TypeConverters {
+
+    private static final Function<Object, Object> IDENTITY = value -> value;
+
+    private final ConvertUtilsBean fallback;
+    private final ClassValue<Map<Class<?>, Function<Object, Object>>> registered = new ClassValue<Map<Class<?>, Function<Object, Object>>>() {
+
+        @Override
+        protected Map<Class<?>, Function<Object, Object>> computeValue(Class<?> type) {
+            return Collections.synchronizedMap(new WeakHashMap<>());
+        }
+    };
+    private volatile boolean hasRegistered;
+
+    /**
+     * Resolved converters by source type then target type. The converter is stored
+     * on the target type, so neither class references the other.
+     */
+    private volatile ClassValue<ClassValue<Function<Object, Object>>> resolved = newResolved();
+
+    /**
+     * Creates a registry falling back to a {@link ConvertUtilsBean} with the default
+     * converters.
+     */
+    public TypeConverters() {
+        this(new ConvertUtilsBean());
+    }
+
+    /**
+     * @param fallback converts the pairs without a registered converter
+     */
+    public TypeConverters(ConvertUtilsBean fallback) {
+        this.fallback = fallback;
+    }
+
+    /**
+     * Registers a converter from a source type, and its subtypes, to a target
+     * type.
+     *
+     * @param sourceType the type of the values to convert
+     * @param targetType the type of the converted values
+     * @param converter  the conversion
+     * @return this registry
+     */
+    @SuppressWarnings("unchecked")
+    public <S, T> TypeConverters register(Class<S> sourceType, Class<T> targetType, Function<? super S, ? extends T> converter) {
+        registered.get(sourceType).put(targetType, (Function<Object, Object>) converter);
+        hasRegistered = true;
+        resolved = newResolved();
+        return this;
+    }
+
+    /**
+     * Returns the converter of a pair of types, resolving it on first use.
+     *
+     * @param sourceType the type of the values to convert
+     * @param targetType the type of the converted values
+     * @return the converter, never null
+     */
+    public Function<Object, Object> lookup(Class<?> sourceType, Class<?> targetType) {
+        return resolved.get(sourceType).get(targetType);
+    }
+
+    /**
+     * Converts a value to a target type.
+     *
+     * @param value      the value to convert, may be null
+     * @param targetType the type of the converted value
+     * @return the converted value, null for a null value
+     */
+    public Object convert(Object value, Class<?> targetType) {
+        if (value == null) {
+            return null;
+        }
+        return lookup(value.getClass(), targetType).apply(value);
+    }
+
+    private Function<Object, Object> resolve(Class<?> sourceType, Class<?> targetType) {
+        Function<Object, Object> converter = findRegistered(sourceType, targetType);
+        if (converter != null) {
+            return converter;
+        }
+
+        // only exact matches are shared, the fallback copies e.g. dates to their target type
+        if (ClassUtils.primitiveToWrapper(sourceType) == ClassUtils.primitiveToWrapper(targetType)) {
+            return IDENTITY;
+        }
+
+        Converter fallbackConverter = fallback.lookup(sourceType, targetType);
+        if (fallbackConverter == null) {
+            return IDENTITY;
+        }
+        return value -> fallbackConverter.convert(targetType, value);
+    }
+
+    private Function<Object, Object> findRegistered(Class<?> sourceType, Class<?> targetType) {
+        if (!hasRegistered) {
+            return null;
+        }
+
+        // a converter registered for a wrapper also converts to the primitive
+        Class<?> wrapperType = ClassUtils.primitiveToWrapper(targetType);
+        List<Class<?>> types = new ArrayList<>();
+        types.add(sourceType);
+        types.addAll(ClassUtils.getAllSuperclasses(sourceType));
+        types.addAll(ClassUtils.getAllInterfaces(sourceType));
+        for (Class<?> type : types) {
+            Map<Class<?>, Function<Object, Object>> byTarget = registered.get(type);
+            Function<Object, Object> converter = byTarget.get(targetType);
+            if (converter == null) {
+                converter = byTarget.get(wrapperType);
+            }
+            if (converter != null) {
+                return converter;
+            }
+        }
+        return null;
+    }
+
+    private ClassValue<ClassValue<Function<Object, Object>>> newResolved() {
+        return new ClassValue<ClassValue<Function<Object, Object>>>() {
+
+            @Override
+            protected ClassValue<Function<Object, Object>> computeValue(Class<?> sourceType) {
+                return new ClassValue<Function<Object, Object>>() {
+
+                    @Override
+                    protected Function<Object, Object> computeValue(Class<?> targetType) {
+                        return resolve(sourceType, targetType);
+                    }
+                };
+            }
+        };
+    }
+}
@@ -35,6 +35,12 @@ import org.xml.sax.SAXException;
  */
 public class XmlUtils {
 
+    /**
+     * Name of the validation operation reported to {@link Metrics}, sizes are in
+     * characters of XML.
+     */
+    public static final String VALIDATE = "XmlUtils.validate";
+
     private XmlUtils() {
 
     }
@@ -47,6 +53,17 @@ public class XmlUtils {
      * @throws ParserConfigurationException if the factory cannot create this feature
      */
     public static boolean validate(String xml) throws ParserConfigurationException {
+        long start = Metrics.start();
+        try {
+            return doValidate(xml);
+        } finally {
+            if (start != Metrics.DISABLED) {
+                Metrics.record(VALIDATE, null, start, xml != null ? xml.length() : 0);
+            }
+        }
+    }
+
+    private static boolean doValidate(String xml) throws ParserConfigurationException {
         DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
         factory.setValidating(false);
         factory.setNamespaceAware(true);